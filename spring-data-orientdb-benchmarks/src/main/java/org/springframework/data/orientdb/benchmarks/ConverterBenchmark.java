@@ -0,0 +1,142 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.authentication.UserCredentials;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.mapping.model.BeanWrapper;
+import org.springframework.data.orientdb.document.core.SimpleOrientDocumentDbManager;
+import org.springframework.data.orientdb.document.core.convert.MappingOrientDocumentConverter;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentMappingContext;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentEntity;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentProperty;
+
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+/**
+ * Entity to document conversion of {@link MappingOrientDocumentConverter}.
+ * The <code>*Baseline</code> benchmarks do the same work the generic way,
+ * walking the persistent properties through a {@link BeanWrapper} on every
+ * call, which is what the cached read and write plans of the converter
+ * replace.
+ * 
+ * @author Matej Zachar
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConverterBenchmark {
+
+	private MemoryDatabase memoryDatabase;
+	private MappingOrientDocumentConverter converter;
+	private OrientDocumentPersistentEntity<Person> entity;
+	private ConversionService conversionService;
+
+	private Person person;
+	private ODocument document;
+
+	@Setup
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		memoryDatabase = new MemoryDatabase("converterBenchmark");
+
+		SimpleOrientDocumentDbManager dbManager = new SimpleOrientDocumentDbManager(memoryDatabase.getUri(),
+				new UserCredentials(MemoryDatabase.USER, MemoryDatabase.PASSWORD));
+		OrientDocumentMappingContext mappingContext = new OrientDocumentMappingContext();
+		converter = new MappingOrientDocumentConverter(dbManager, mappingContext);
+		entity = (OrientDocumentPersistentEntity<Person>) mappingContext.getPersistentEntity(Person.class);
+		conversionService = new DefaultConversionService();
+
+		person = new Person("John Doe", "john@example.com", 42);
+		document = new ODocument("Person");
+		converter.write(person, document);
+	}
+
+	@TearDown
+	public void tearDown() {
+		memoryDatabase.drop();
+	}
+
+	@Benchmark
+	public ODocument write() {
+		ODocument oDoc = new ODocument("Person");
+		converter.write(person, oDoc);
+		return oDoc;
+	}
+
+	@Benchmark
+	public ODocument writeBaseline() {
+		final ODocument oDoc = new ODocument("Person");
+		final BeanWrapper<OrientDocumentPersistentEntity<Person>, Person> wrapper = BeanWrapper.create(person,
+				conversionService);
+		entity.doWithProperties(new PropertyHandler<OrientDocumentPersistentProperty>() {
+			public void doWithPersistentProperty(OrientDocumentPersistentProperty prop) {
+				if (prop.isIdProperty()) {
+					return;
+				}
+				Object value = wrapper.getProperty(prop);
+				if (value != null) {
+					oDoc.field(prop.getFieldName(), value);
+				}
+			}
+		});
+		return oDoc;
+	}
+
+	@Benchmark
+	public Person read() {
+		return converter.read(Person.class, document);
+	}
+
+	@Benchmark
+	public Person readBaseline() {
+		final BeanWrapper<OrientDocumentPersistentEntity<Person>, Person> wrapper = BeanWrapper.create(new Person(),
+				conversionService);
+		entity.doWithProperties(new PropertyHandler<OrientDocumentPersistentProperty>() {
+			public void doWithPersistentProperty(OrientDocumentPersistentProperty prop) {
+				if (prop.isIdProperty()) {
+					return;
+				}
+				Object value = document.field(prop.getFieldName());
+				if (value != null) {
+					wrapper.setProperty(prop, value);
+				}
+			}
+		});
+		return wrapper.getBean();
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.orientdb.core.OrientDatabaseUtils;
+import org.springframework.data.orientdb.document.core.OrientDocumentDatabaseFactory;
+import org.springframework.data.orientdb.transaction.OrientTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+
+/**
+ * {@link OrientDatabaseUtils#doGetDatabase} and release of the database,
+ * either resolving the database bound by a running transaction or opening a
+ * new one from the factory when there is no transaction.
+ * 
+ * @author Matej Zachar
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatabaseUtilsBenchmark {
+
+	@Param({ "true", "false" })
+	public boolean transactional;
+
+	private MemoryDatabase memoryDatabase;
+	private OrientDocumentDatabaseFactory factory;
+	private OrientTransactionManager transactionManager;
+	private TransactionStatus status;
+
+	@Setup
+	public void setUp() {
+		memoryDatabase = new MemoryDatabase("databaseUtilsBenchmark");
+
+		factory = new OrientDocumentDatabaseFactory(memoryDatabase.getUri(), MemoryDatabase.USER,
+				MemoryDatabase.PASSWORD);
+		transactionManager = new OrientTransactionManager();
+		transactionManager.setFactory(factory);
+	}
+
+	@Setup(Level.Iteration)
+	public void beginTransaction() {
+		if (transactional) {
+			status = transactionManager.getTransaction(null);
+		}
+	}
+
+	@TearDown(Level.Iteration)
+	public void commitTransaction() {
+		if (status != null) {
+			transactionManager.commit(status);
+			status = null;
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		memoryDatabase.drop();
+	}
+
+	@Benchmark
+	public ODatabaseDocumentTx doGetDatabase() {
+		ODatabaseDocumentTx db = OrientDatabaseUtils.doGetDatabase(factory);
+		OrientDatabaseUtils.doReleaseConnection(db, factory);
+		return db;
+	}
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.benchmarks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+
+/**
+ * In-memory database living for one benchmark trial. Every instance gets its
+ * own <code>memory:</code> storage so benchmark threads do not share data.
+ * The database is kept open until {@link #drop()} so the storage survives
+ * while benchmarked code opens and closes its own connections.
+ * 
+ * @author Matej Zachar
+ * 
+ */
+public class MemoryDatabase {
+
+	public static final String USER = "admin";
+	public static final String PASSWORD = "admin";
+
+	private static final AtomicInteger COUNTER = new AtomicInteger();
+
+	private final String uri;
+	private final ODatabaseDocumentTx database;
+
+	public MemoryDatabase(String name) {
+		this.uri = "memory:" + name + COUNTER.incrementAndGet();
+		this.database = new ODatabaseDocumentTx(uri);
+		database.create();
+	}
+
+	public String getUri() {
+		return uri;
+	}
+
+	public ODatabaseDocumentTx getDatabase() {
+		return database;
+	}
+
+	public void drop() {
+		if (!database.isClosed()) {
+			database.drop();
+		}
+	}
+
+}
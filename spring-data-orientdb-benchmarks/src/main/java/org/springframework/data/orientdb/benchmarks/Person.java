@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.benchmarks;
+
+import org.springframework.data.orientdb.document.core.mapping.Document;
+
+/**
+ * Entity used by the benchmarks, a handful of simple properties plus an id.
+ * 
+ * @author Matej Zachar
+ * 
+ */
+@Document
+public class Person {
+
+	private String id;
+	private String name;
+	private String email;
+	private int age;
+	private long createdAt;
+	private boolean active;
+
+	public Person() {
+	}
+
+	public Person(String name, String email, int age) {
+		this.name = name;
+		this.email = email;
+		this.age = age;
+		this.createdAt = System.currentTimeMillis();
+		this.active = true;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	public void setEmail(String email) {
+		this.email = email;
+	}
+
+	public int getAge() {
+		return age;
+	}
+
+	public void setAge(int age) {
+		this.age = age;
+	}
+
+	public long getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(long createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	public boolean isActive() {
+		return active;
+	}
+
+	public void setActive(boolean active) {
+		this.active = active;
+	}
+
+}
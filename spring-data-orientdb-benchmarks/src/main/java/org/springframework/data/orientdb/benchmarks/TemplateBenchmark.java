@@ -0,0 +1,80 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.authentication.UserCredentials;
+import org.springframework.data.orientdb.document.core.OrientDocumentTemplate;
+import org.springframework.data.orientdb.document.core.SimpleOrientDocumentDbManager;
+import org.springframework.data.orientdb.document.core.convert.MappingOrientDocumentConverter;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentMappingContext;
+
+/**
+ * Throughput of {@link OrientDocumentTemplate#save(Object)}, i.e. conversion
+ * plus storing a new document.
+ * 
+ * @author Matej Zachar
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateBenchmark {
+
+	private MemoryDatabase memoryDatabase;
+	private OrientDocumentTemplate template;
+	private int counter;
+
+	@Setup
+	public void setUp() {
+		memoryDatabase = new MemoryDatabase("templateBenchmark");
+
+		SimpleOrientDocumentDbManager dbManager = new SimpleOrientDocumentDbManager(memoryDatabase.getUri(),
+				new UserCredentials(MemoryDatabase.USER, MemoryDatabase.PASSWORD));
+		MappingOrientDocumentConverter converter = new MappingOrientDocumentConverter(dbManager,
+				new OrientDocumentMappingContext());
+		template = new OrientDocumentTemplate(dbManager, converter);
+	}
+
+	@TearDown
+	public void tearDown() {
+		memoryDatabase.drop();
+	}
+
+	@Benchmark
+	public Person save() {
+		Person person = new Person("person" + counter++, "person@example.com", 42);
+		template.save(person);
+		return person;
+	}
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.orientdb.core.pool.BoundedOrientDatabasePool;
+import org.springframework.data.orientdb.document.core.OrientDocumentDatabaseFactory;
+import org.springframework.data.orientdb.transaction.OrientTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+
+/**
+ * Cost of an empty transaction demarcated by {@link OrientTransactionManager}:
+ * regular, read-only (no OrientDB transaction) and lazy (no database
+ * acquired at all), each with and without a database pool behind the
+ * factory.
+ * 
+ * @author Matej Zachar
+ * 
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionManagerBenchmark {
+
+	@Param({ "false", "true" })
+	public boolean pooled;
+
+	private MemoryDatabase memoryDatabase;
+	private OrientDocumentDatabaseFactory factory;
+
+	private OrientTransactionManager transactionManager;
+	private OrientTransactionManager lazyTransactionManager;
+
+	private DefaultTransactionDefinition definition;
+	private DefaultTransactionDefinition readOnlyDefinition;
+
+	@Setup
+	public void setUp() {
+		memoryDatabase = new MemoryDatabase("transactionBenchmark");
+
+		factory = new OrientDocumentDatabaseFactory(memoryDatabase.getUri(), MemoryDatabase.USER,
+				MemoryDatabase.PASSWORD);
+		if (pooled) {
+			BoundedOrientDatabasePool<ODatabaseDocumentTx> pool = new BoundedOrientDatabasePool<ODatabaseDocumentTx>();
+			pool.setMinSize(1);
+			factory.setPool(pool);
+		}
+		factory.afterPropertiesSet();
+
+		transactionManager = new OrientTransactionManager();
+		transactionManager.setFactory(factory);
+
+		lazyTransactionManager = new OrientTransactionManager();
+		lazyTransactionManager.setFactory(factory);
+		lazyTransactionManager.setLazyDatabaseAcquisition(true);
+
+		definition = new DefaultTransactionDefinition();
+		readOnlyDefinition = new DefaultTransactionDefinition();
+		readOnlyDefinition.setReadOnly(true);
+	}
+
+	@TearDown
+	public void tearDown() {
+		factory.destroy();
+		memoryDatabase.drop();
+	}
+
+	@Benchmark
+	public TransactionStatus beginCommit() {
+		TransactionStatus status = transactionManager.getTransaction(definition);
+		transactionManager.commit(status);
+		return status;
+	}
+
+	@Benchmark
+	public TransactionStatus beginCommitReadOnly() {
+		TransactionStatus status = transactionManager.getTransaction(readOnlyDefinition);
+		transactionManager.commit(status);
+		return status;
+	}
+
+	@Benchmark
+	public TransactionStatus beginCommitLazy() {
+		TransactionStatus status = lazyTransactionManager.getTransaction(definition);
+		lazyTransactionManager.commit(status);
+		return status;
+	}
+
+}
@@ -1,6 +1,12 @@
 package org.springframework.data.orientdb.core;
 
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.data.authentication.UserCredentials;
+import org.springframework.data.orientdb.core.pool.OrientDatabasePool;
+import org.springframework.data.orientdb.support.NoOpOrientInstrumentation;
+import org.springframework.data.orientdb.support.OrientInstrumentation;
+import org.springframework.data.orientdb.support.OrientOperation;
 
 import com.orientechnologies.orient.core.db.record.ODatabaseRecord;
 
@@ -10,12 +16,17 @@ import com.orientechnologies.orient.core.db.record.ODatabaseRecord;
  * @author Matej Zachar
  * 
  */
-public abstract class AbstractOrientDatabaseFactory<DB extends ODatabaseRecord> implements OrientDatabaseFacotry<DB> {
+public abstract class AbstractOrientDatabaseFactory<DB extends ODatabaseRecord> implements OrientDatabaseFacotry<DB>,
+		InitializingBean, DisposableBean {
 
 	private String uri;
 
 	private UserCredentials credentials;
 	
+	private OrientDatabasePool<DB> pool;
+	
+	private OrientInstrumentation instrumentation = NoOpOrientInstrumentation.INSTANCE;
+	
 	public AbstractOrientDatabaseFactory(String uri, UserCredentials credentials) {
 		this.uri = uri;
 		this.credentials = credentials;
@@ -43,9 +54,93 @@ public abstract class AbstractOrientDatabaseFactory<DB extends ODatabaseRecord>
 		this.credentials = credentials;
 	}
 
+	/**
+	 * Registers the pool which will serve {@link #getDatabase()}, it is
+	 * started by {@link #afterPropertiesSet()}. Databases are then created by
+	 * {@link #doGetDatabase} only when the pool needs new ones.
+	 * 
+	 * @param pool
+	 *            pool of databases, <code>null</code> to create new database
+	 *            on every call
+	 */
+	public void setPool(OrientDatabasePool<DB> pool) {
+		this.pool = pool;
+	}
+	
+	public OrientDatabasePool<DB> getPool() {
+		return pool;
+	}
+	
+	/**
+	 * @param instrumentation
+	 *            receives durations of {@link #getDatabase()}, including
+	 *            waiting for the pool, <code>null</code> to record nothing
+	 */
+	public void setInstrumentation(OrientInstrumentation instrumentation) {
+		this.instrumentation = instrumentation != null ? instrumentation : NoOpOrientInstrumentation.INSTANCE;
+	}
+
+	/**
+	 * Starts the {@link #setPool pool}, once the {@link #setUri uri} and
+	 * {@link #setCredentials credentials} are final.
+	 */
+	public void afterPropertiesSet() {
+		if (pool != null) {
+			pool.start(new OrientDatabaseFacotry<DB>() {
+				public DB getDatabase() {
+					return doGetDatabase(uri, credentials);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Closes the {@link #setPool pool}, databases in use are closed on
+	 * release.
+	 */
+	public void destroy() {
+		if (pool != null) {
+			pool.close();
+		}
+	}
+
 	public final DB getDatabase() {
+		if (!instrumentation.isEnabled()) {
+			return obtainDatabase();
+		}
+		
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			DB db = obtainDatabase();
+			failed = false;
+			return db;
+		} finally {
+			instrumentation.record(OrientOperation.ACQUIRE, null, System.nanoTime() - start, failed);
+		}
+	}
+	
+	private DB obtainDatabase() {
+		if (pool != null) {
+			return pool.acquire();
+		}
 		return doGetDatabase(uri, credentials);
 	}
+	
+	/**
+	 * Release database obtained from {@link #getDatabase()}, returning it to
+	 * the pool if there is one.
+	 * 
+	 * @param database
+	 *            database to release
+	 */
+	public void releaseDatabase(DB database) {
+		if (pool != null) {
+			pool.release(database);
+		} else {
+			database.close();
+		}
+	}
 
 	/**
 	 * Obtain specific database. It should be new database every time this
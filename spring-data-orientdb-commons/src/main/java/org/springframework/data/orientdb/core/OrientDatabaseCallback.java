@@ -0,0 +1,21 @@
+package org.springframework.data.orientdb.core;
+
+import com.orientechnologies.orient.core.db.record.ODatabaseRecord;
+
+/**
+ * Work done with a database of an {@link OrientUnitOfWork}.
+ * 
+ * @author Matej Zachar
+ * 
+ */
+public interface OrientDatabaseCallback<DB extends ODatabaseRecord, T> {
+
+	/**
+	 * @param database
+	 *            database of the unit of work, bound to the OrientDB thread
+	 *            local of the calling thread for the duration of the call
+	 * @return result of the work, may be <code>null</code>
+	 */
+	T doInDatabase(DB database);
+
+}
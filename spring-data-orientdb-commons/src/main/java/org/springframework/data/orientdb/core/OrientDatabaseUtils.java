@@ -79,7 +79,7 @@ public class OrientDatabaseUtils {
 		if (dbHolder != null && dbHolder.isSynchronizedWithTransaction()) {
 			dbHolder.requested();
 			logger.debug("Fetching bound database for current transaction");
-			return dbHolder.getDatabase();
+			return dbHolder.acquireDatabase();
 		}
 		
 		logger.debug("Fetchin new database from factory");
@@ -136,6 +136,7 @@ public class OrientDatabaseUtils {
 	 *             if thrown by OrientDB methods
 	 * @see #doGetConnection
 	 */
+	@SuppressWarnings("unchecked")
 	public static <DB extends ODatabaseRecord> void doReleaseConnection(DB database, OrientDatabaseFacotry<DB> factory) throws OException {
 		if (database == null) {
 			return;
@@ -151,9 +152,44 @@ public class OrientDatabaseUtils {
 			}
 		}
 
+		if (factory instanceof AbstractOrientDatabaseFactory) {
+			// may return the database into the pool of the factory
+			((AbstractOrientDatabaseFactory<DB>) factory).releaseDatabase(database);
+			return;
+		}
+
 		database.close();
 	}
 
+	/**
+	 * Find the {@link ODatabaseHolder} bound to the current thread which holds
+	 * the given database, e.g. the one bound by {@link OrientTransactionManager}.
+	 * Useful for code which knows the database only and needs state tied to
+	 * the current unit of work.
+	 * 
+	 * @param database
+	 *            the database to look up the holder for (may be a proxy)
+	 * @return bound holder of the database or <code>null</code> when the
+	 *         database is not bound to the thread
+	 */
+	public static ODatabaseHolder<?> getDatabaseHolder(ODatabaseRecord database) {
+		if (database == null) {
+			return null;
+		}
+
+		ODatabaseRecord targetDatabase = getTargetDatabase(database);
+		for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+			if (resource instanceof ODatabaseHolder) {
+				ODatabaseHolder<?> dbHolder = (ODatabaseHolder<?>) resource;
+				ODatabaseRecord heldDatabase = dbHolder.getDatabase();
+				if (heldDatabase != null && (heldDatabase == database || getTargetDatabase(heldDatabase) == targetDatabase)) {
+					return dbHolder;
+				}
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Determine whether the given two database are equal, asking the target
 	 * database in case of a proxy. Used to detect equality even if the user
@@ -170,6 +206,9 @@ public class OrientDatabaseUtils {
 	 */
 	private static <DB extends ODatabaseRecord> boolean connectionEquals(ODatabaseHolder<DB> dbHolder, DB passedInDatabase) {
 		DB heldDatabase = dbHolder.getDatabase();
+		if (heldDatabase == null) {
+			return false;
+		}
 		return (heldDatabase == passedInDatabase //
 				|| heldDatabase.equals(passedInDatabase) //
 		|| getTargetDatabase(heldDatabase).equals(passedInDatabase));
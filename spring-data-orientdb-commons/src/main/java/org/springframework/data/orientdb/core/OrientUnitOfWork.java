@@ -0,0 +1,118 @@
+package org.springframework.data.orientdb.core;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.util.Assert;
+
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.record.ODatabaseRecord;
+
+/**
+ * A pooled database held for one unit of work, independent of the thread
+ * which started it. Unlike databases bound by {@link OrientDatabaseUtils} or
+ * {@link org.springframework.data.orientdb.transaction.OrientTransactionManager}
+ * the database is not kept in any thread local between calls. Every
+ * {@link #execute execute} attaches it to the OrientDB thread local of the
+ * calling thread and restores the previous database afterwards, so the unit
+ * of work may continue on another thread and no thread keeps a reference to
+ * a database which went back to the pool.
+ * 
+ * <p>
+ * Calls from different threads are serialized, a database must never be used
+ * by two threads at once. The lock is a {@link ReentrantLock} rather than a
+ * monitor so that waiting callers do not pin the thread they run on.
+ * 
+ * @author Matej Zachar
+ * 
+ * @see OrientUnitOfWorkTemplate
+ */
+public class OrientUnitOfWork<DB extends ODatabaseRecord> {
+
+	private final AbstractOrientDatabaseFactory<DB> factory;
+	private final DB database;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final AtomicBoolean closed = new AtomicBoolean();
+
+	OrientUnitOfWork(AbstractOrientDatabaseFactory<DB> factory, DB database) {
+		this.factory = factory;
+		this.database = database;
+	}
+
+	/**
+	 * Run the callback with the database of this unit of work bound to the
+	 * current thread.
+	 * 
+	 * @param callback
+	 *            work to do with the database
+	 * @return result of the callback
+	 * @throws IllegalStateException
+	 *             if the unit of work was already closed
+	 */
+	public <T> T execute(OrientDatabaseCallback<DB, T> callback) {
+		Assert.notNull(callback, "Callback must not be null");
+		lock.lock();
+		try {
+			Assert.state(!closed.get(), "Unit of work was already closed");
+			ODatabaseRecord previous = attach(database);
+			try {
+				return callback.doInDatabase(database);
+			} finally {
+				detach(previous);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Return the database to the pool. Further calls are ignored.
+	 */
+	public void close() {
+		if (!closed.compareAndSet(false, true)) {
+			return;
+		}
+		lock.lock();
+		try {
+			ODatabaseRecord previous = attach(database);
+			try {
+				factory.releaseDatabase(database);
+			} finally {
+				detach(previous);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public boolean isClosed() {
+		return closed.get();
+	}
+
+	/**
+	 * @return the database held, not bound to any thread
+	 */
+	public DB getDatabase() {
+		return database;
+	}
+
+	/**
+	 * @param database
+	 *            database to bind to the current thread
+	 * @return database bound before
+	 */
+	static ODatabaseRecord attach(ODatabaseRecord database) {
+		ODatabaseRecord previous = ODatabaseRecordThreadLocal.INSTANCE.getIfDefined();
+		ODatabaseRecordThreadLocal.INSTANCE.set(database);
+		return previous;
+	}
+
+	static void detach(ODatabaseRecord previous) {
+		if (previous != null) {
+			ODatabaseRecordThreadLocal.INSTANCE.set(previous);
+		} else {
+			ODatabaseRecordThreadLocal.INSTANCE.remove();
+		}
+	}
+
+}
@@ -0,0 +1,87 @@
+package org.springframework.data.orientdb.core;
+
+import org.springframework.data.orientdb.CannotGetOriendDbConnectionException;
+import org.springframework.util.Assert;
+
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.record.ODatabaseRecord;
+
+/**
+ * Hands out databases of a pooled {@link AbstractOrientDatabaseFactory} per
+ * unit of work instead of per thread. Meant for applications running a
+ * large number of short lived or suspended threads, where binding a
+ * database to every thread (as {@link OrientDatabaseUtils} does within
+ * transaction synchronization) opens as many databases as there are threads.
+ * Here the number of open databases never exceeds the maximal size of the
+ * factory pool, threads above it wait for a database to be released.
+ * 
+ * <pre>
+ * OrientUnitOfWorkTemplate&lt;ODatabaseDocumentTx&gt; template = new OrientUnitOfWorkTemplate&lt;ODatabaseDocumentTx&gt;(factory);
+ * long count = template.execute(new OrientDatabaseCallback&lt;ODatabaseDocumentTx, Long&gt;() {
+ * 	public Long doInDatabase(ODatabaseDocumentTx db) {
+ * 		return db.countClass("Animal");
+ * 	}
+ * });
+ * </pre>
+ * 
+ * Units of work spanning several steps, possibly on different threads, are
+ * started by {@link #begin()} and have to be closed by the caller.
+ * 
+ * @author Matej Zachar
+ * 
+ */
+public class OrientUnitOfWorkTemplate<DB extends ODatabaseRecord> {
+
+	private final AbstractOrientDatabaseFactory<DB> factory;
+
+	/**
+	 * @param factory
+	 *            factory with a {@link AbstractOrientDatabaseFactory#setPool
+	 *            pool}, which limits the number of open databases
+	 */
+	public OrientUnitOfWorkTemplate(AbstractOrientDatabaseFactory<DB> factory) {
+		Assert.notNull(factory, "Database factory must not be null");
+		Assert.notNull(factory.getPool(), "Database factory has to be pooled to bound the number of databases");
+		this.factory = factory;
+	}
+
+	/**
+	 * Start a unit of work, waiting for a free database of the pool.
+	 * 
+	 * @return unit of work holding a database, to be closed when done
+	 * @throws CannotGetOriendDbConnectionException
+	 *             if the pool had no free database in time
+	 */
+	public OrientUnitOfWork<DB> begin() throws CannotGetOriendDbConnectionException {
+		// the pool binds acquired databases to the thread, keep the binding of the caller
+		ODatabaseRecord previous = ODatabaseRecordThreadLocal.INSTANCE.getIfDefined();
+		try {
+			return new OrientUnitOfWork<DB>(factory, factory.getDatabase());
+		} finally {
+			OrientUnitOfWork.detach(previous);
+		}
+	}
+
+	/**
+	 * Run the callback as a unit of work of its own.
+	 * 
+	 * @param callback
+	 *            work to do with the database
+	 * @return result of the callback
+	 * @throws CannotGetOriendDbConnectionException
+	 *             if the pool had no free database in time
+	 */
+	public <T> T execute(OrientDatabaseCallback<DB, T> callback) throws CannotGetOriendDbConnectionException {
+		OrientUnitOfWork<DB> unitOfWork = begin();
+		try {
+			return unitOfWork.execute(callback);
+		} finally {
+			unitOfWork.close();
+		}
+	}
+
+	public AbstractOrientDatabaseFactory<DB> getFactory() {
+		return factory;
+	}
+
+}
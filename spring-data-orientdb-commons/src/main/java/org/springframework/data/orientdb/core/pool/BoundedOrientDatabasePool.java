@@ -0,0 +1,396 @@
+package org.springframework.data.orientdb.core.pool;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.orientdb.CannotGetOriendDbConnectionException;
+import org.springframework.data.orientdb.core.OrientDatabaseFacotry;
+import org.springframework.data.orientdb.support.LatencyHistogram;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.record.ODatabaseRecord;
+
+/**
+ * Default {@link OrientDatabasePool}. Holds at most {@link #setMaxSize
+ * maxSize} databases, callers beyond that wait (in order of arrival when
+ * {@link #setFair fair}) up to {@link #setAcquireTimeout acquireTimeout}
+ * for a database to be released. {@link #setMinSize minSize} databases are
+ * opened on start and kept open, others are closed after being idle for
+ * {@link #setIdleTimeout idleTimeout}.
+ *
+ * <pre>
+ * &lt;bean id="orientDbFactory" class="..."&gt;
+ * 	&lt;property name="pool"&gt;
+ * 		&lt;bean class="org.springframework.data.orientdb.core.pool.BoundedOrientDatabasePool"&gt;
+ * 			&lt;property name="minSize" value="5"/&gt;
+ * 			&lt;property name="maxSize" value="50"/&gt;
+ * 		&lt;/bean&gt;
+ * 	&lt;/property&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ *
+ * @author Matej Zachar
+ *
+ */
+public class BoundedOrientDatabasePool<DB extends ODatabaseRecord> implements OrientDatabasePool<DB>,
+		OrientDatabasePoolStatistics, DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(BoundedOrientDatabasePool.class);
+
+	private int minSize = 0;
+	private int maxSize = 10;
+	private long acquireTimeout = 30000;
+	private long idleTimeout = 600000;
+	private long evictionInterval = 60000;
+	private boolean fair = true;
+
+	private OrientDatabaseFacotry<DB> source;
+	private Semaphore permits;
+	private ScheduledExecutorService evictor;
+	private volatile boolean closed = false;
+
+	/** idle databases, most recently released first */
+	private final LinkedBlockingDeque<IdleDatabase<DB>> idle = new LinkedBlockingDeque<IdleDatabase<DB>>();
+	/** databases handed out with the time of acquire in nanoseconds */
+	private final Map<DB, Long> active = Collections.synchronizedMap(new IdentityHashMap<DB, Long>());
+
+	private final AtomicLong createdCount = new AtomicLong();
+	private final AtomicLong destroyedCount = new AtomicLong();
+	private final AtomicLong acquiredCount = new AtomicLong();
+	private final AtomicLong timeoutCount = new AtomicLong();
+	private final AtomicInteger maxWaitingCount = new AtomicInteger();
+	private final LatencyHistogram acquireLatency = new LatencyHistogram();
+	private final LatencyHistogram usageTime = new LatencyHistogram();
+
+	/**
+	 * @param minSize
+	 *            databases opened on start and never evicted
+	 */
+	public void setMinSize(int minSize) {
+		Assert.isTrue(minSize >= 0, "Minimal pool size must not be negative");
+		this.minSize = minSize;
+	}
+
+	/**
+	 * @param maxSize
+	 *            maximal number of databases handed out at once
+	 */
+	public void setMaxSize(int maxSize) {
+		Assert.isTrue(maxSize > 0, "Maximal pool size has to be a positive number");
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * @param acquireTimeout
+	 *            milliseconds to wait for a database when the pool is
+	 *            exhausted
+	 */
+	public void setAcquireTimeout(long acquireTimeout) {
+		this.acquireTimeout = acquireTimeout;
+	}
+
+	/**
+	 * @param idleTimeout
+	 *            milliseconds after which an unused database above
+	 *            {@link #setMinSize minSize} is closed, 0 to never evict
+	 */
+	public void setIdleTimeout(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+
+	/**
+	 * @param evictionInterval
+	 *            milliseconds between checks for idle databases
+	 */
+	public void setEvictionInterval(long evictionInterval) {
+		Assert.isTrue(evictionInterval > 0, "Eviction interval has to be a positive number");
+		this.evictionInterval = evictionInterval;
+	}
+
+	/**
+	 * @param fair
+	 *            whether waiting callers get databases in order of arrival
+	 */
+	public void setFair(boolean fair) {
+		this.fair = fair;
+	}
+
+	public synchronized void start(OrientDatabaseFacotry<DB> source) {
+		Assert.notNull(source, "Database source must not be null");
+		Assert.state(this.source == null, "Pool was already started");
+		Assert.isTrue(minSize <= maxSize, "Minimal pool size must not exceed maximal pool size");
+
+		this.source = source;
+		this.permits = new Semaphore(maxSize, fair);
+
+		// warm-up
+		for (int i = 0; i < minSize; i++) {
+			idle.offerLast(new IdleDatabase<DB>(create()));
+		}
+
+		if (idleTimeout > 0) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("orientdb-pool-evictor-");
+			threadFactory.setDaemon(true);
+			evictor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+			evictor.scheduleWithFixedDelay(new Runnable() {
+				public void run() {
+					evictIdle();
+				}
+			}, evictionInterval, evictionInterval, TimeUnit.MILLISECONDS);
+		}
+		logger.debug("Started OrientDB pool with " + minSize + " idle databases");
+	}
+
+	public DB acquire() throws CannotGetOriendDbConnectionException {
+		Assert.state(permits != null, "Pool was not started");
+		if (closed) {
+			throw new CannotGetOriendDbConnectionException("OrientDB pool is already closed");
+		}
+
+		long start = System.nanoTime();
+		try {
+			// zero timeout respects fairness unlike tryAcquire()
+			if (!permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+				updateMaxWaiting(permits.getQueueLength() + 1);
+				if (!permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS)) {
+					timeoutCount.incrementAndGet();
+					throw new CannotGetOriendDbConnectionException("Could not get database within " + acquireTimeout
+							+ "ms, all " + maxSize + " databases of the pool are in use");
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CannotGetOriendDbConnectionException("Interrupted while waiting for a database", e);
+		}
+
+		DB db;
+		try {
+			db = takeIdle();
+			if (db == null) {
+				db = create();
+			}
+		} catch (RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+
+		active.put(db, System.nanoTime());
+		acquiredCount.incrementAndGet();
+		acquireLatency.record(System.nanoTime() - start);
+
+		ODatabaseRecordThreadLocal.INSTANCE.set(db);
+		return db;
+	}
+
+	public void release(DB database) {
+		if (database == null) {
+			return;
+		}
+
+		try {
+			doRelease(database);
+		} finally {
+			// the database may be handed to another thread from now on
+			ODatabaseRecord bound = ODatabaseRecordThreadLocal.INSTANCE.getIfDefined();
+			if (bound != null && (bound == database || bound.getDatabaseOwner() == database)) {
+				ODatabaseRecordThreadLocal.INSTANCE.remove();
+			}
+		}
+	}
+
+	private void doRelease(DB database) {
+		Long acquiredAt = active.remove(database);
+		if (acquiredAt == null) {
+			if (isIdle(database)) {
+				logger.debug("Ignoring database released to the pool more than once");
+				return;
+			}
+			logger.debug("Closing database not obtained from the pool");
+			database.close();
+			return;
+		}
+
+		usageTime.record(System.nanoTime() - acquiredAt);
+		try {
+			if (closed || database.isClosed()) {
+				destroy(database);
+				return;
+			}
+			if (database.getTransaction().isActive()) {
+				logger.debug("Rolling back transaction left open on released database");
+				database.rollback();
+			}
+			// records may be changed through other databases while idle
+			database.getLevel1Cache().clear();
+			idle.offerFirst(new IdleDatabase<DB>(database));
+
+		} catch (RuntimeException e) {
+			logger.debug("Could not return database to the pool", e);
+			destroy(database);
+
+		} finally {
+			permits.release();
+		}
+	}
+
+	public synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		if (evictor != null) {
+			evictor.shutdownNow();
+		}
+
+		IdleDatabase<DB> entry;
+		while ((entry = idle.pollFirst()) != null) {
+			destroy(entry.database);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.beans.factory.DisposableBean#destroy()
+	 */
+	public void destroy() {
+		close();
+	}
+
+	public OrientDatabasePoolStatistics getStatistics() {
+		return this;
+	}
+
+	/**
+	 * Close databases idle for longer than {@link #setIdleTimeout
+	 * idleTimeout}, keeping at least {@link #setMinSize minSize} databases
+	 * open.
+	 */
+	protected void evictIdle() {
+		long deadline = System.currentTimeMillis() - idleTimeout;
+		while (idle.size() + active.size() > minSize) {
+			// least recently used databases are at the end
+			IdleDatabase<DB> entry = idle.peekLast();
+			if (entry == null || entry.since > deadline) {
+				return;
+			}
+			if (idle.removeLastOccurrence(entry)) {
+				destroy(entry.database);
+			}
+		}
+	}
+
+	private DB takeIdle() {
+		IdleDatabase<DB> entry;
+		while ((entry = idle.pollFirst()) != null) {
+			if (!entry.database.isClosed()) {
+				entry.database.getLevel1Cache().invalidate();
+				return entry.database;
+			}
+			destroyedCount.incrementAndGet();
+		}
+		return null;
+	}
+
+	private boolean isIdle(DB database) {
+		for (IdleDatabase<DB> entry : idle) {
+			if (entry.database == database) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private DB create() {
+		DB db = source.getDatabase();
+		createdCount.incrementAndGet();
+		return db;
+	}
+
+	private void destroy(DB database) {
+		destroyedCount.incrementAndGet();
+		try {
+			if (!database.isClosed()) {
+				database.close();
+			}
+		} catch (RuntimeException e) {
+			logger.debug("Could not close pooled database", e);
+		}
+	}
+
+	private void updateMaxWaiting(int waiting) {
+		int max = maxWaitingCount.get();
+		while (waiting > max && !maxWaitingCount.compareAndSet(max, waiting)) {
+			max = maxWaitingCount.get();
+		}
+	}
+
+	public long getCreatedCount() {
+		return createdCount.get();
+	}
+
+	public long getDestroyedCount() {
+		return destroyedCount.get();
+	}
+
+	public long getAcquiredCount() {
+		return acquiredCount.get();
+	}
+
+	public long getTimeoutCount() {
+		return timeoutCount.get();
+	}
+
+	public int getIdleCount() {
+		return idle.size();
+	}
+
+	public int getActiveCount() {
+		return active.size();
+	}
+
+	public int getWaitingCount() {
+		return permits != null ? permits.getQueueLength() : 0;
+	}
+
+	public int getMaxWaitingCount() {
+		return maxWaitingCount.get();
+	}
+
+	public LatencyHistogram getAcquireLatency() {
+		return acquireLatency;
+	}
+
+	public LatencyHistogram getUsageTime() {
+		return usageTime;
+	}
+
+	@Override
+	public String toString() {
+		return "BoundedOrientDatabasePool [active=" + getActiveCount() + ", idle=" + getIdleCount() + ", waiting="
+				+ getWaitingCount() + ", maxSize=" + maxSize + ", acquire={" + acquireLatency + "}]";
+	}
+
+	private static class IdleDatabase<DB> {
+
+		private final DB database;
+		private final long since = System.currentTimeMillis();
+
+		IdleDatabase(DB database) {
+			this.database = database;
+		}
+	}
+
+}
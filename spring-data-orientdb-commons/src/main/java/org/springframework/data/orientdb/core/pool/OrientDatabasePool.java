@@ -0,0 +1,57 @@
+package org.springframework.data.orientdb.core.pool;
+
+import org.springframework.data.orientdb.CannotGetOriendDbConnectionException;
+import org.springframework.data.orientdb.core.AbstractOrientDatabaseFactory;
+import org.springframework.data.orientdb.core.OrientDatabaseFacotry;
+
+import com.orientechnologies.orient.core.db.record.ODatabaseRecord;
+
+/**
+ * Pool of open databases used by {@link AbstractOrientDatabaseFactory} in
+ * front of its {@link AbstractOrientDatabaseFactory#doGetDatabase
+ * doGetDatabase}.
+ * 
+ * @author Matej Zachar
+ * 
+ */
+public interface OrientDatabasePool<DB extends ODatabaseRecord> {
+
+	/**
+	 * Called by the factory the pool is registered with. The pool has to
+	 * obtain new databases from the given source only.
+	 * 
+	 * @param source
+	 *            creates new unpooled databases
+	 */
+	void start(OrientDatabaseFacotry<DB> source);
+
+	/**
+	 * Obtain a database from the pool, waiting for one to be released when
+	 * the pool is exhausted.
+	 * 
+	 * @return open database bound to the OrientDB thread local
+	 * @throws CannotGetOriendDbConnectionException
+	 *             if no database could be obtained in time
+	 */
+	DB acquire() throws CannotGetOriendDbConnectionException;
+
+	/**
+	 * Return the database to the pool. Databases not coming from this pool
+	 * are closed.
+	 * 
+	 * @param database
+	 *            database obtained by {@link #acquire()}
+	 */
+	void release(DB database);
+
+	/**
+	 * Close all pooled databases, databases in use are closed on release.
+	 */
+	void close();
+
+	/**
+	 * @return live statistics of the pool
+	 */
+	OrientDatabasePoolStatistics getStatistics();
+
+}
@@ -0,0 +1,65 @@
+package org.springframework.data.orientdb.core.pool;
+
+import org.springframework.data.orientdb.support.LatencyHistogram;
+
+/**
+ * Live counters of an {@link OrientDatabasePool}.
+ * 
+ * @author Matej Zachar
+ * 
+ */
+public interface OrientDatabasePoolStatistics {
+
+	/**
+	 * @return number of databases opened by the pool so far
+	 */
+	long getCreatedCount();
+
+	/**
+	 * @return number of databases closed by the pool so far (evicted, broken
+	 *         or closed on shutdown)
+	 */
+	long getDestroyedCount();
+
+	/**
+	 * @return number of successful acquires
+	 */
+	long getAcquiredCount();
+
+	/**
+	 * @return number of acquires which failed because the pool was exhausted
+	 *         for longer than the acquire timeout
+	 */
+	long getTimeoutCount();
+
+	/**
+	 * @return number of open databases waiting in the pool
+	 */
+	int getIdleCount();
+
+	/**
+	 * @return number of databases currently handed out
+	 */
+	int getActiveCount();
+
+	/**
+	 * @return number of threads currently waiting for a database
+	 */
+	int getWaitingCount();
+
+	/**
+	 * @return highest number of threads waiting for a database at once
+	 */
+	int getMaxWaitingCount();
+
+	/**
+	 * @return time spent in acquire, including waiting for a free database
+	 */
+	LatencyHistogram getAcquireLatency();
+
+	/**
+	 * @return time between acquire and release of a database
+	 */
+	LatencyHistogram getUsageTime();
+
+}
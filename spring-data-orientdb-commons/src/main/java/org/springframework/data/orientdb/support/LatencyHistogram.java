@@ -0,0 +1,117 @@
+package org.springframework.data.orientdb.support;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations with power of two buckets in
+ * microseconds (bucket <code>i</code> counts values below
+ * <code>2^i</code> microseconds). Precise enough to spot latency shifts while costing
+ * just a few atomic increments per recorded value.
+ *
+ * @author Matej Zachar
+ *
+ */
+public class LatencyHistogram {
+
+	private static final int BUCKETS = 40;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong totalNanos = new AtomicLong();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	/**
+	 * @param nanos
+	 *            duration in nanoseconds, negative values are ignored
+	 */
+	public void record(long nanos) {
+		if (nanos < 0) {
+			return;
+		}
+		buckets.incrementAndGet(bucketOf(nanos));
+		count.incrementAndGet();
+		totalNanos.addAndGet(nanos);
+
+		long max = maxNanos.get();
+		while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+			max = maxNanos.get();
+		}
+	}
+
+	public long getCount() {
+		return count.get();
+	}
+
+	public long getTotal(TimeUnit unit) {
+		return unit.convert(totalNanos.get(), TimeUnit.NANOSECONDS);
+	}
+
+	public long getMean(TimeUnit unit) {
+		long c = count.get();
+		return c == 0 ? 0 : unit.convert(totalNanos.get() / c, TimeUnit.NANOSECONDS);
+	}
+
+	public long getMax(TimeUnit unit) {
+		return unit.convert(maxNanos.get(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Approximate percentile, reported as the upper bound of the bucket the
+	 * percentile falls into.
+	 *
+	 * @param percentile
+	 *            value between 0 and 100
+	 */
+	public long getPercentile(double percentile, TimeUnit unit) {
+		long c = count.get();
+		if (c == 0) {
+			return 0;
+		}
+		long threshold = (long) Math.ceil(c * percentile / 100.0);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += buckets.get(i);
+			if (seen >= threshold) {
+				return unit.convert(Math.min(1L << i, TimeUnit.NANOSECONDS.toMicros(maxNanos.get()) + 1),
+						TimeUnit.MICROSECONDS);
+			}
+		}
+		return getMax(unit);
+	}
+
+	/**
+	 * @return copy of the bucket counts, bucket <code>i</code> holds values
+	 *         below <code>2^i</code> microseconds
+	 */
+	public long[] getBucketCounts() {
+		long[] result = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			result[i] = buckets.get(i);
+		}
+		return result;
+	}
+
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets.set(i, 0);
+		}
+		count.set(0);
+		totalNanos.set(0);
+		maxNanos.set(0);
+	}
+
+	private static int bucketOf(long nanos) {
+		long micros = nanos / 1000;
+		int bucket = 64 - Long.numberOfLeadingZeros(micros);
+		return bucket < BUCKETS ? bucket : BUCKETS - 1;
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + getCount() + ", mean=" + getMean(TimeUnit.MICROSECONDS) + "us, p99="
+				+ getPercentile(99, TimeUnit.MICROSECONDS) + "us, max=" + getMax(TimeUnit.MICROSECONDS) + "us";
+	}
+
+}
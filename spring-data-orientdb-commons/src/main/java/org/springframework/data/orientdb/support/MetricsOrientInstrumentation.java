@@ -0,0 +1,192 @@
+package org.springframework.data.orientdb.support;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * {@link OrientInstrumentation} keeping counters and {@link LatencyHistogram
+ * latency histograms} per {@link OrientOperation} and, where known, per
+ * entity class. Recording is lock-free, only the first operation on a new
+ * entity class allocates its metrics.
+ *
+ * <p>
+ * Operations slower than {@link #setSlowOperationThreshold
+ * slowOperationThreshold} are logged one by one with their entity class, so
+ * that latency spikes seen in the histograms can be traced to the entities
+ * involved.
+ *
+ * <pre>
+ * &lt;bean id="orientInstrumentation" class="org.springframework.data.orientdb.support.MetricsOrientInstrumentation"&gt;
+ * 	&lt;property name="slowOperationThreshold" value="100"/&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ *
+ * @author Matej Zachar
+ *
+ */
+public class MetricsOrientInstrumentation implements OrientInstrumentation {
+
+	private static final Log logger = LogFactory.getLog(MetricsOrientInstrumentation.class);
+
+	private static final OrientOperation[] OPERATIONS = OrientOperation.values();
+
+	private volatile boolean enabled = true;
+	private volatile long slowOperationNanos = 0;
+
+	private final Map<OrientOperation, OperationMetrics> operations = new EnumMap<OrientOperation, OperationMetrics>(
+			OrientOperation.class);
+	private final ConcurrentMap<Class<?>, OperationMetrics[]> entities = new ConcurrentHashMap<Class<?>, OperationMetrics[]>();
+
+	public MetricsOrientInstrumentation() {
+		for (OrientOperation operation : OPERATIONS) {
+			operations.put(operation, new OperationMetrics());
+		}
+	}
+
+	/**
+	 * @param enabled
+	 *            whether to record operations, may be switched at runtime
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @param slowOperationThreshold
+	 *            milliseconds above which an operation is logged, 0 to log
+	 *            none
+	 */
+	public void setSlowOperationThreshold(long slowOperationThreshold) {
+		this.slowOperationNanos = TimeUnit.MILLISECONDS.toNanos(slowOperationThreshold);
+	}
+
+	public void record(OrientOperation operation, Class<?> entityClass, long nanos, boolean failed) {
+		operations.get(operation).record(nanos, failed);
+		if (entityClass != null) {
+			getEntityMetrics(entityClass)[operation.ordinal()].record(nanos, failed);
+		}
+
+		long threshold = slowOperationNanos;
+		if (threshold > 0 && nanos >= threshold && logger.isWarnEnabled()) {
+			logger.warn("Slow OrientDB " + operation + (entityClass != null ? " of " + entityClass.getName() : "")
+					+ " took " + TimeUnit.NANOSECONDS.toMillis(nanos) + "ms" + (failed ? " and failed" : ""));
+		}
+	}
+
+	/**
+	 * @param operation
+	 *            kind of operation
+	 * @return metrics of all operations of the kind
+	 */
+	public OperationMetrics getMetrics(OrientOperation operation) {
+		return operations.get(operation);
+	}
+
+	/**
+	 * @param operation
+	 *            kind of operation
+	 * @param entityClass
+	 *            entity class
+	 * @return metrics of operations of the kind on the entity class,
+	 *         <code>null</code> if there was none on the class yet
+	 */
+	public OperationMetrics getMetrics(OrientOperation operation, Class<?> entityClass) {
+		OperationMetrics[] metrics = entities.get(entityClass);
+		return metrics != null ? metrics[operation.ordinal()] : null;
+	}
+
+	/**
+	 * @return entity classes with recorded operations
+	 */
+	public Set<Class<?>> getEntityClasses() {
+		return entities.keySet();
+	}
+
+	/**
+	 * Clear all counters, e.g. at the start of a measurement interval.
+	 */
+	public void reset() {
+		for (OperationMetrics metrics : operations.values()) {
+			metrics.reset();
+		}
+		entities.clear();
+	}
+
+	private OperationMetrics[] getEntityMetrics(Class<?> entityClass) {
+		OperationMetrics[] metrics = entities.get(entityClass);
+		if (metrics == null) {
+			OperationMetrics[] created = new OperationMetrics[OPERATIONS.length];
+			for (int i = 0; i < created.length; i++) {
+				created[i] = new OperationMetrics();
+			}
+			metrics = entities.putIfAbsent(entityClass, created);
+			if (metrics == null) {
+				metrics = created;
+			}
+		}
+		return metrics;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("MetricsOrientInstrumentation [");
+		for (OrientOperation operation : OPERATIONS) {
+			if (operation.ordinal() > 0) {
+				sb.append(", ");
+			}
+			sb.append(operation).append("={").append(operations.get(operation)).append('}');
+		}
+		return sb.append(']').toString();
+	}
+
+	/**
+	 * Counters of one kind of operation.
+	 */
+	public static class OperationMetrics {
+
+		private final AtomicLong failedCount = new AtomicLong();
+		private final LatencyHistogram latency = new LatencyHistogram();
+
+		void record(long nanos, boolean failed) {
+			latency.record(nanos);
+			if (failed) {
+				failedCount.incrementAndGet();
+			}
+		}
+
+		void reset() {
+			failedCount.set(0);
+			latency.reset();
+		}
+
+		public long getCount() {
+			return latency.getCount();
+		}
+
+		public long getFailedCount() {
+			return failedCount.get();
+		}
+
+		public LatencyHistogram getLatency() {
+			return latency;
+		}
+
+		@Override
+		public String toString() {
+			return latency + ", failed=" + getFailedCount();
+		}
+	}
+
+}
@@ -0,0 +1,24 @@
+package org.springframework.data.orientdb.support;
+
+/**
+ * {@link OrientInstrumentation} which records nothing, the default of all
+ * instrumented classes.
+ *
+ * @author Matej Zachar
+ *
+ */
+public final class NoOpOrientInstrumentation implements OrientInstrumentation {
+
+	public static final NoOpOrientInstrumentation INSTANCE = new NoOpOrientInstrumentation();
+
+	private NoOpOrientInstrumentation() {
+	}
+
+	public boolean isEnabled() {
+		return false;
+	}
+
+	public void record(OrientOperation operation, Class<?> entityClass, long nanos, boolean failed) {
+	}
+
+}
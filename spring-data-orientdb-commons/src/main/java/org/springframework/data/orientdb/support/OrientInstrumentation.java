@@ -0,0 +1,49 @@
+package org.springframework.data.orientdb.support;
+
+/**
+ * Receives the durations of operations done by the OrientDB support classes.
+ * Instrumented code asks {@link #isEnabled()} before reading the clock, so a
+ * disabled instrumentation costs a single call per operation.
+ *
+ * <pre>
+ * boolean timed = instrumentation.isEnabled();
+ * long start = timed ? System.nanoTime() : 0;
+ * boolean failed = true;
+ * try {
+ * 	// ... the operation
+ * 	failed = false;
+ * } finally {
+ * 	if (timed) {
+ * 		instrumentation.record(OrientOperation.COMMIT, null, System.nanoTime() - start, failed);
+ * 	}
+ * }
+ * </pre>
+ *
+ * Implementations are called concurrently and should not block.
+ *
+ * @author Matej Zachar
+ *
+ * @see MetricsOrientInstrumentation
+ * @see NoOpOrientInstrumentation
+ */
+public interface OrientInstrumentation {
+
+	/**
+	 * @return whether operations should be timed and recorded at all
+	 */
+	boolean isEnabled();
+
+	/**
+	 * @param operation
+	 *            kind of the operation
+	 * @param entityClass
+	 *            entity class the operation worked with, <code>null</code>
+	 *            when not tied to an entity
+	 * @param nanos
+	 *            duration of the operation in nanoseconds
+	 * @param failed
+	 *            whether the operation ended with an exception
+	 */
+	void record(OrientOperation operation, Class<?> entityClass, long nanos, boolean failed);
+
+}
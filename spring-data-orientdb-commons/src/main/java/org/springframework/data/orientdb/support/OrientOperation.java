@@ -0,0 +1,26 @@
+package org.springframework.data.orientdb.support;
+
+/**
+ * Kinds of work timed through {@link OrientInstrumentation}.
+ *
+ * @author Matej Zachar
+ *
+ */
+public enum OrientOperation {
+
+	/** obtaining a database from a pool or factory */
+	ACQUIRE,
+
+	/** converting a document to an entity, recorded per document also when converted in batches */
+	READ,
+
+	/** converting an entity to a document */
+	WRITE,
+
+	/** committing a database transaction */
+	COMMIT,
+
+	/** rolling back a database transaction */
+	ROLLBACK
+
+}
@@ -1,5 +1,10 @@
 package org.springframework.data.orientdb.transaction;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.data.orientdb.core.OrientDatabaseFacotry;
+import org.springframework.data.orientdb.core.OrientDatabaseUtils;
 import org.springframework.transaction.support.ResourceHolderSupport;
 
 import com.orientechnologies.orient.core.db.record.ODatabaseRecord;
@@ -8,15 +13,74 @@ public class ODatabaseHolder<DB extends ODatabaseRecord> extends ResourceHolderS
 
 	private DB database;
 	
+	private OrientDatabaseFacotry<? extends DB> deferredFactory;
+	
+	private boolean beginOnAcquire;
+	
 	private boolean transactionActive = false;
 	
+	private Map<Object, Object> identityMap;
+	
+	private Map<Object, Object> attributes;
+	
 	public ODatabaseHolder(DB database) {
 		this.database = database;
 	}
 	
+	/**
+	 * Deferred holder, the database is obtained from the factory only on the
+	 * first {@link #acquireDatabase()}.
+	 * 
+	 * @param factory
+	 *            the factory to obtain the database from
+	 * @param beginOnAcquire
+	 *            whether to begin OrientDB transaction on the acquired
+	 *            database
+	 */
+	public ODatabaseHolder(OrientDatabaseFacotry<? extends DB> factory, boolean beginOnAcquire) {
+		this.deferredFactory = factory;
+		this.beginOnAcquire = beginOnAcquire;
+	}
+	
+	/**
+	 * @return held database, <code>null</code> when the database of a
+	 *         deferred holder was not acquired yet
+	 */
 	public DB getDatabase() {
 		return database;
 	}
+	
+	/**
+	 * Return the held database, obtaining it from the factory first in case of
+	 * a deferred holder.
+	 * 
+	 * @return held database
+	 */
+	@SuppressWarnings("unchecked")
+	public DB acquireDatabase() {
+		if (database == null && deferredFactory != null) {
+			DB db = deferredFactory.getDatabase();
+			if (beginOnAcquire) {
+				try {
+					db.begin();
+				} catch (RuntimeException e) {
+					OrientDatabaseUtils.releaseConnection(db, (OrientDatabaseFacotry<DB>) deferredFactory);
+					throw e;
+				}
+			}
+			database = db;
+			deferredFactory = null;
+		}
+		return database;
+	}
+	
+	/**
+	 * @return <code>false</code> for deferred holder which has not acquired
+	 *         its database yet
+	 */
+	public boolean isDatabaseAcquired() {
+		return database != null;
+	}
 
 	public boolean isTransactionActive() {
 		return transactionActive;
@@ -26,11 +90,46 @@ public class ODatabaseHolder<DB extends ODatabaseRecord> extends ResourceHolderS
 		this.transactionActive = transactionActive;
 	}
 	
+	/**
+	 * First level cache of entities loaded within the unit of work this holder
+	 * is bound to, keyed by record id. Discarded together with the holder.
+	 * 
+	 * @return identity map, never <code>null</code>
+	 */
+	public Map<Object, Object> getIdentityMap() {
+		if (identityMap == null) {
+			identityMap = new HashMap<Object, Object>();
+		}
+		return identityMap;
+	}
+	
+	/**
+	 * Arbitrary state tied to the unit of work this holder is bound to, e.g.
+	 * snapshots of loaded entities. Discarded together with the holder.
+	 * 
+	 * @param key
+	 *            attribute key
+	 * @return attribute value or <code>null</code> if not set
+	 */
+	public Object getAttribute(Object key) {
+		return attributes == null ? null : attributes.get(key);
+	}
+	
+	public void setAttribute(Object key, Object value) {
+		if (attributes == null) {
+			attributes = new HashMap<Object, Object>();
+		}
+		attributes.put(key, value);
+	}
+	
 	@Override
 	public void clear() {
 		super.clear();
 		database = null;
+		deferredFactory = null;
 		transactionActive = false;
+		identityMap = null;
+		attributes = null;
 	}
 	
 }
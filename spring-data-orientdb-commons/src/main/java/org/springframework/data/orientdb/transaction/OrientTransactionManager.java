@@ -2,8 +2,12 @@ package org.springframework.data.orientdb.transaction;
 
 import junit.framework.Assert;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.orientdb.core.OrientDatabaseFacotry;
 import org.springframework.data.orientdb.core.OrientDatabaseUtils;
+import org.springframework.data.orientdb.support.NoOpOrientInstrumentation;
+import org.springframework.data.orientdb.support.OrientInstrumentation;
+import org.springframework.data.orientdb.support.OrientOperation;
 import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.TransactionException;
@@ -14,6 +18,7 @@ import org.springframework.transaction.support.ResourceTransactionManager;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.orientechnologies.orient.core.db.record.ODatabaseRecord;
+import com.orientechnologies.orient.core.exception.OConcurrentModificationException;
 import com.orientechnologies.orient.core.exception.OTransactionException;
 
 public class OrientTransactionManager extends AbstractPlatformTransactionManager implements ResourceTransactionManager {
@@ -22,6 +27,12 @@ public class OrientTransactionManager extends AbstractPlatformTransactionManager
 	
 	private OrientDatabaseFacotry<? extends ODatabaseRecord> factory;
 	
+	private OrientDatabaseFacotry<? extends ODatabaseRecord> readOnlyFactory;
+	
+	private boolean lazyDatabaseAcquisition = false;
+	
+	private OrientInstrumentation instrumentation = NoOpOrientInstrumentation.INSTANCE;
+	
 	public OrientTransactionManager() {
 		setNestedTransactionAllowed(false);
 	}
@@ -31,6 +42,42 @@ public class OrientTransactionManager extends AbstractPlatformTransactionManager
 		this.factory = factory;
 	}
 	
+	/**
+	 * Optional factory used for read-only transactions, e.g. pointing to a
+	 * replica or a pool tuned for reads. Databases obtained from it are still
+	 * bound to the thread under the main {@link #setFactory factory}, so data
+	 * access code does not need to know about it.
+	 * 
+	 * @param readOnlyFactory
+	 *            factory for read-only transactions, <code>null</code> to use
+	 *            the main factory
+	 */
+	public void setReadOnlyFactory(OrientDatabaseFacotry<? extends ODatabaseRecord> readOnlyFactory) {
+		this.readOnlyFactory = readOnlyFactory;
+	}
+	
+	/**
+	 * In lazy mode a new transaction binds only a deferred database holder.
+	 * The database is obtained and the OrientDB transaction begun on the first
+	 * {@link OrientDatabaseUtils#doGetDatabase} within the transaction, so
+	 * transactions which never touch the database do not occupy one.
+	 * 
+	 * @param lazyDatabaseAcquisition
+	 *            whether to defer obtaining the database until its first use
+	 */
+	public void setLazyDatabaseAcquisition(boolean lazyDatabaseAcquisition) {
+		this.lazyDatabaseAcquisition = lazyDatabaseAcquisition;
+	}
+	
+	/**
+	 * @param instrumentation
+	 *            receives durations of commits and rollbacks,
+	 *            <code>null</code> to record nothing
+	 */
+	public void setInstrumentation(OrientInstrumentation instrumentation) {
+		this.instrumentation = instrumentation != null ? instrumentation : NoOpOrientInstrumentation.INSTANCE;
+	}
+	
 	public Object getResourceFactory() {
 		return factory;
 	}
@@ -55,27 +102,40 @@ public class OrientTransactionManager extends AbstractPlatformTransactionManager
 		return txObject;
 	}
 
+	/**
+	 * Read-only transactions only bind the database to the thread, the
+	 * OrientDB transaction is not started at all as there is nothing to
+	 * commit.
+	 */
 	@Override
 	protected void doBegin(Object transaction, TransactionDefinition definition) throws TransactionException {
 		OrientTransactionObject txObject = (OrientTransactionObject) transaction;
+		boolean readOnly = definition != null && definition.isReadOnly();
 		try {
 			ODatabaseRecord db = null;
-			if (txObject.getDatabaseHolder() == null || txObject.getDatabaseHolder().isSynchronizedWithTransaction()) {
+			boolean newHolder = txObject.getDatabaseHolder() == null || txObject.getDatabaseHolder().isSynchronizedWithTransaction();
+			if (newHolder && lazyDatabaseAcquisition) {
+				// database and orient transaction come with the first use
+				logger.debug("Deferring database acquisition for OrientDB transaction");
+				txObject.setDatabaseHolder(new ODatabaseHolder<ODatabaseRecord>(getFactory(readOnly), !readOnly));
+			} else if (newHolder) {
 				// we need to obtain new connection
-				db = factory.getDatabase();
+				db = getFactory(readOnly).getDatabase();
 				logger.debug("Aquired new database for OrientDB transaction");
 				txObject.setDatabaseHolder(new ODatabaseHolder<ODatabaseRecord>(db));
 			}
+			txObject.setReadOnly(readOnly);
 
 			// mark this holder as synchronized
 			txObject.getDatabaseHolder().setSynchronizedWithTransaction(true);
-			db = txObject.getDatabaseHolder().getDatabase();
 
 			// sets transactionActive
 			txObject.getDatabaseHolder().setTransactionActive(true);
 			
-			// begin orient transaction
-			txObject.getDatabaseHolder().getDatabase().begin();
+			// begin orient transaction, read-only work does not need one
+			if (!readOnly && txObject.getDatabaseHolder().isDatabaseAcquired()) {
+				txObject.getDatabaseHolder().getDatabase().begin();
+			}
 			
 			// bind the DatabaseHolder to the thread.
 			TransactionSynchronizationManager.bindResource(factory, txObject.getDatabaseHolder());
@@ -89,7 +149,7 @@ public class OrientTransactionManager extends AbstractPlatformTransactionManager
 	protected void closeDatabaseConnectionAfterFailedBegin(OrientTransactionObject txObject) {
 			ODatabaseRecord db = txObject.getDatabaseHolder().getDatabase();
 			try {
-				if (db.getTransaction().isActive()) {
+				if (db != null && db.getTransaction().isActive()) {
 					db.rollback();
 				}
 			}
@@ -109,9 +169,21 @@ public class OrientTransactionManager extends AbstractPlatformTransactionManager
 			logger.debug("Committing OrientDB transaction on database [" + txObject.getDatabaseHolder().getDatabase() + "]");
 		}
 		
+		if (txObject.isReadOnly() || !txObject.getDatabaseHolder().isDatabaseAcquired()) {
+			// nothing was done within orient transaction
+			return;
+		}
+		
+		boolean timed = instrumentation.isEnabled();
+		long start = timed ? System.nanoTime() : 0;
+		boolean failed = true;
 		try {
 			ODatabaseRecord db = txObject.getDatabaseHolder().getDatabase();
 			db.commit();
+			failed = false;
+			
+		} catch (OConcurrentModificationException ex) {
+			throw new OptimisticLockingFailureException("Could not commit OrientDB transaction, record was modified concurrently", ex);
 			
 		} catch (OTransactionException ex) {
 			throw new TransactionSystemException("Could not commit OrientDB transaction", ex);
@@ -119,6 +191,11 @@ public class OrientTransactionManager extends AbstractPlatformTransactionManager
 		} catch (RuntimeException ex) {
 			// TODO: Translate exception if necessary
 			throw ex;
+			
+		} finally {
+			if (timed) {
+				instrumentation.record(OrientOperation.COMMIT, null, System.nanoTime() - start, failed);
+			}
 		}
 	}
 
@@ -128,9 +205,18 @@ public class OrientTransactionManager extends AbstractPlatformTransactionManager
 		if (status.isDebug()) {
 			logger.debug("Rolling back OrientDB transaction on DB [" + txObject.getDatabaseHolder().getDatabase() + "]");
 		}
+		if (txObject.isReadOnly() || !txObject.getDatabaseHolder().isDatabaseAcquired()) {
+			// nothing was done within orient transaction
+			return;
+		}
+		
+		boolean timed = instrumentation.isEnabled();
+		long start = timed ? System.nanoTime() : 0;
+		boolean failed = true;
 		try {
 			ODatabaseRecord db = txObject.getDatabaseHolder().getDatabase();
 			db.rollback();
+			failed = false;
 		}
 		catch (OTransactionException ex) {
 			throw new TransactionSystemException("Could not commit OrientDB transaction", ex);
@@ -139,6 +225,11 @@ public class OrientTransactionManager extends AbstractPlatformTransactionManager
 			// TODO: Translate exception if necessary
 			throw ex;
 		}
+		finally {
+			if (timed) {
+				instrumentation.record(OrientOperation.ROLLBACK, null, System.nanoTime() - start, failed);
+			}
+		}
 	}
 	
 	@Override
@@ -174,7 +265,11 @@ public class OrientTransactionManager extends AbstractPlatformTransactionManager
 		// Remove the DatabaseHolder from the thread.
 		TransactionSynchronizationManager.unbindResource(factory);
 		
-		OrientDatabaseUtils.releaseConnection(db, (OrientDatabaseFacotry<ODatabaseRecord>)factory);
+		OrientDatabaseUtils.releaseConnection(db, (OrientDatabaseFacotry<ODatabaseRecord>) getFactory(txObject.isReadOnly()));
+	}
+	
+	private OrientDatabaseFacotry<? extends ODatabaseRecord> getFactory(boolean readOnly) {
+		return readOnly && readOnlyFactory != null ? readOnlyFactory : factory;
 	}
 	
 }
@@ -10,6 +10,8 @@ public class OrientTransactionObject implements SmartTransactionObject {
 
 	private boolean rollbackOnly;
 	
+	private boolean readOnly;
+	
 	public OrientTransactionObject() {
 		this.rollbackOnly = false;
 	}
@@ -22,6 +24,18 @@ public class OrientTransactionObject implements SmartTransactionObject {
 		return databaseHolder;
 	}
 
+	/**
+	 * @param readOnly
+	 *            whether the database is used without an OrientDB transaction
+	 */
+	public void setReadOnly(boolean readOnly) {
+		this.readOnly = readOnly;
+	}
+
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
 	public boolean hasTransaction() {
 		return (databaseHolder != null && databaseHolder.isTransactionActive());
 	}
@@ -36,7 +50,9 @@ public class OrientTransactionObject implements SmartTransactionObject {
 	}
 
 	public void flush() {
-		databaseHolder.getDatabase().commit();
+		if (!readOnly && databaseHolder.isDatabaseAcquired()) {
+			databaseHolder.getDatabase().commit();
+		}
 	}
 
 }
\ No newline at end of file
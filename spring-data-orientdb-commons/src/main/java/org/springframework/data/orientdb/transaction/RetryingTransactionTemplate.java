@@ -0,0 +1,213 @@
+package org.springframework.data.orientdb.transaction;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import com.orientechnologies.common.concur.ONeedRetryException;
+
+/**
+ * {@link TransactionTemplate} which re-runs the whole unit of work when it
+ * fails on a version conflict ({@link ONeedRetryException}, e.g.
+ * <code>OConcurrentModificationException</code>, or Spring's
+ * {@link ConcurrencyFailureException}). Between attempts it sleeps for an
+ * exponentially growing, randomly jittered delay so that competing writers
+ * do not collide again right away.
+ *
+ * <p>
+ * Only an outermost transaction is retried, when the callback joins an
+ * already running transaction the conflict is propagated to its owner.
+ * The callback has to be safe to run more than once.
+ *
+ * <pre>
+ * RetryingTransactionTemplate template = new RetryingTransactionTemplate(transactionManager);
+ * template.setMaxAttempts(5);
+ * template.execute(new TransactionCallbackWithoutResult() {
+ * 	protected void doInTransactionWithoutResult(TransactionStatus status) {
+ * 		incrementCounter();
+ * 	}
+ * });
+ * </pre>
+ *
+ * @author Matej Zachar
+ *
+ */
+public class RetryingTransactionTemplate extends TransactionTemplate {
+
+	private static final long serialVersionUID = -2311956370914416412L;
+
+	private int maxAttempts = 3;
+	private long initialBackoff = 10;
+	private long maxBackoff = 1000;
+	private double multiplier = 2.0;
+
+	private final Random random = new Random();
+
+	private final AtomicLong executionCount = new AtomicLong();
+	private final AtomicLong conflictCount = new AtomicLong();
+	private final AtomicLong retryCount = new AtomicLong();
+	private final AtomicLong exhaustedCount = new AtomicLong();
+
+	/**
+	 * Construct a new RetryingTransactionTemplate for bean usage. Note: The
+	 * PlatformTransactionManager needs to be set before any
+	 * <code>execute</code> calls.
+	 */
+	public RetryingTransactionTemplate() {
+	}
+
+	public RetryingTransactionTemplate(PlatformTransactionManager transactionManager) {
+		super(transactionManager);
+	}
+
+	public RetryingTransactionTemplate(PlatformTransactionManager transactionManager,
+			TransactionDefinition transactionDefinition) {
+		super(transactionManager, transactionDefinition);
+	}
+
+	/**
+	 * @param maxAttempts
+	 *            how many times the unit of work runs at most, including the
+	 *            first attempt
+	 */
+	public void setMaxAttempts(int maxAttempts) {
+		Assert.isTrue(maxAttempts > 0, "Number of attempts has to be a positive number");
+		this.maxAttempts = maxAttempts;
+	}
+
+	public int getMaxAttempts() {
+		return maxAttempts;
+	}
+
+	/**
+	 * @param initialBackoff
+	 *            upper bound in milliseconds of the delay before the first
+	 *            retry
+	 */
+	public void setInitialBackoff(long initialBackoff) {
+		Assert.isTrue(initialBackoff >= 0, "Backoff must not be negative");
+		this.initialBackoff = initialBackoff;
+	}
+
+	/**
+	 * @param maxBackoff
+	 *            upper bound in milliseconds of any delay between attempts
+	 */
+	public void setMaxBackoff(long maxBackoff) {
+		Assert.isTrue(maxBackoff >= 0, "Backoff must not be negative");
+		this.maxBackoff = maxBackoff;
+	}
+
+	/**
+	 * @param multiplier
+	 *            growth of the backoff bound with every further retry
+	 */
+	public void setMultiplier(double multiplier) {
+		Assert.isTrue(multiplier >= 1.0, "Backoff multiplier must be at least 1");
+		this.multiplier = multiplier;
+	}
+
+	@Override
+	public <T> T execute(TransactionCallback<T> action) throws TransactionException {
+		executionCount.incrementAndGet();
+		boolean outermost = !TransactionSynchronizationManager.isActualTransactionActive();
+
+		for (int attempt = 1;; attempt++) {
+			try {
+				return super.execute(action);
+
+			} catch (RuntimeException ex) {
+				if (!isVersionConflict(ex)) {
+					throw ex;
+				}
+				conflictCount.incrementAndGet();
+				if (!outermost) {
+					throw ex;
+				}
+				if (attempt >= maxAttempts) {
+					exhaustedCount.incrementAndGet();
+					logger.debug("Giving up OrientDB transaction after " + attempt + " conflicting attempts");
+					throw ex;
+				}
+
+				retryCount.incrementAndGet();
+				backoff(attempt, ex);
+			}
+		}
+	}
+
+	/**
+	 * @return <code>true</code> when the exception or any of its causes
+	 *         signals that the unit of work may succeed when run again
+	 */
+	protected boolean isVersionConflict(Throwable ex) {
+		for (Throwable t = ex; t != null; t = t.getCause()) {
+			if (t instanceof ONeedRetryException || t instanceof ConcurrencyFailureException) {
+				return true;
+			}
+			if (t.getCause() == t) {
+				break;
+			}
+		}
+		return false;
+	}
+
+	private void backoff(int attempt, RuntimeException ex) {
+		double bound = Math.min(maxBackoff, initialBackoff * Math.pow(multiplier, attempt - 1));
+		long delay;
+		synchronized (random) {
+			// full jitter, anything between zero and the current bound
+			delay = (long) (random.nextDouble() * bound);
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Retrying OrientDB transaction in " + delay + "ms after conflict: " + ex.getMessage());
+		}
+		if (delay <= 0) {
+			return;
+		}
+		try {
+			Thread.sleep(delay);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw ex;
+		}
+	}
+
+	/**
+	 * @return number of {@link #execute} calls
+	 */
+	public long getExecutionCount() {
+		return executionCount.get();
+	}
+
+	/**
+	 * @return number of attempts which failed on a version conflict
+	 */
+	public long getConflictCount() {
+		return conflictCount.get();
+	}
+
+	/**
+	 * @return number of times a unit of work was run again
+	 */
+	public long getRetryCount() {
+		return retryCount.get();
+	}
+
+	/**
+	 * @return number of units of work which still conflicted after
+	 *         {@link #setMaxAttempts maxAttempts}
+	 */
+	public long getExhaustedCount() {
+		return exhaustedCount.get();
+	}
+
+}
@@ -1,15 +1,24 @@
 package org.springframework.data.orientdb.core;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.data.orientdb.transaction.ODatabaseHolder;
 import org.springframework.data.orientdb.transaction.OrientTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.orientechnologies.orient.core.db.record.ODatabaseRecord;
+import com.orientechnologies.orient.core.tx.OTransaction;
 
 /**
  * 
@@ -79,4 +88,49 @@ public class OrientDatabaseUtilsTest {
 		verify(database, times(0)).close(); // close cannot be called on transaction managed database connection
 	}
 
+	@Test
+	public void getDatabaseHolder_transaction() {
+		when(factory.getDatabase()).thenReturn(database);
+		
+		TransactionStatus status = transactionManager.getTransaction(null);
+		
+		ODatabaseHolder<?> dbHolder = OrientDatabaseUtils.getDatabaseHolder(database);
+		assertNotNull(dbHolder);
+		assertSame(database, dbHolder.getDatabase());
+		
+		transactionManager.commit(status);
+		assertNull(OrientDatabaseUtils.getDatabaseHolder(database));
+	}
+
+	@Test
+	public void getDatabase_lazyTransaction() {
+		when(factory.getDatabase()).thenReturn(database);
+		when(database.getTransaction()).thenReturn(mock(OTransaction.class));
+		transactionManager.setLazyDatabaseAcquisition(true);
+		
+		TransactionStatus status = transactionManager.getTransaction(null);
+		verify(factory, never()).getDatabase(); // deferred until first use
+		
+		ODatabaseRecord db1 = OrientDatabaseUtils.getDatabase(factory);
+		ODatabaseRecord db2 = OrientDatabaseUtils.getDatabase(factory);
+		assertSame(database, db1);
+		assertSame(database, db2);
+		verify(factory).getDatabase();
+		verify(database).begin();
+		
+		transactionManager.commit(status);
+		verify(database).commit();
+	}
+	
+	@Test
+	public void getDatabase_lazyTransactionNotUsed() {
+		transactionManager.setLazyDatabaseAcquisition(true);
+		
+		TransactionStatus status = transactionManager.getTransaction(null);
+		transactionManager.commit(status);
+		
+		verify(factory, never()).getDatabase();
+		assertFalse(TransactionSynchronizationManager.hasResource(factory));
+	}
+
 }
@@ -0,0 +1,178 @@
+package org.springframework.data.orientdb.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.authentication.UserCredentials;
+import org.springframework.data.orientdb.core.pool.BoundedOrientDatabasePool;
+
+import com.orientechnologies.orient.core.cache.OLevel1RecordCache;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.record.ODatabaseRecord;
+import com.orientechnologies.orient.core.tx.OTransaction;
+
+/**
+ * 
+ * @author Matej Zachar
+ *
+ */
+public class OrientUnitOfWorkTemplateTest {
+
+	private static final int POOL_SIZE = 8;
+	
+	private BoundedOrientDatabasePool<ODatabaseRecord> pool;
+	
+	private OrientUnitOfWorkTemplate<ODatabaseRecord> template;
+	
+	@Before
+	public void setUp() throws Exception {
+		// other tests of the same JVM may have left a database bound
+		ODatabaseRecordThreadLocal.INSTANCE.remove();
+		
+		pool = new BoundedOrientDatabasePool<ODatabaseRecord>();
+		pool.setMaxSize(POOL_SIZE);
+		pool.setAcquireTimeout(60000);
+		
+		AbstractOrientDatabaseFactory<ODatabaseRecord> factory = new AbstractOrientDatabaseFactory<ODatabaseRecord>("memory:test", "admin", "admin") {
+			@Override
+			protected ODatabaseRecord doGetDatabase(String uri, UserCredentials credentials) {
+				ODatabaseRecord db = mock(ODatabaseRecord.class);
+				when(db.getTransaction()).thenReturn(mock(OTransaction.class));
+				when(db.getLevel1Cache()).thenReturn(mock(OLevel1RecordCache.class));
+				return db;
+			}
+		};
+		factory.setPool(pool);
+		factory.afterPropertiesSet();
+		template = new OrientUnitOfWorkTemplate<ODatabaseRecord>(factory);
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		pool.close();
+		ODatabaseRecordThreadLocal.INSTANCE.remove();
+	}
+	
+	@Test
+	public void execute_bindsDatabaseForTheCallOnly() {
+		ODatabaseRecord used = template.execute(new OrientDatabaseCallback<ODatabaseRecord, ODatabaseRecord>() {
+			public ODatabaseRecord doInDatabase(ODatabaseRecord database) {
+				assertSame(database, ODatabaseRecordThreadLocal.INSTANCE.getIfDefined());
+				return database;
+			}
+		});
+		
+		assertNull(ODatabaseRecordThreadLocal.INSTANCE.getIfDefined());
+		assertEquals(0, pool.getStatistics().getActiveCount());
+		assertEquals(1, pool.getStatistics().getIdleCount());
+		assertSame(used, template.execute(new OrientDatabaseCallback<ODatabaseRecord, ODatabaseRecord>() {
+			public ODatabaseRecord doInDatabase(ODatabaseRecord database) {
+				return database;
+			}
+		}));
+	}
+	
+	@Test
+	public void unitOfWork_continuesOnAnotherThread() throws Exception {
+		ODatabaseRecord outer = mock(ODatabaseRecord.class);
+		ODatabaseRecordThreadLocal.INSTANCE.set(outer);
+		
+		final OrientUnitOfWork<ODatabaseRecord> unitOfWork = template.begin();
+		assertSame("begin must keep the binding of the caller", outer, ODatabaseRecordThreadLocal.INSTANCE.getIfDefined());
+		
+		final AtomicReference<ODatabaseRecord> bound = new AtomicReference<ODatabaseRecord>();
+		Thread other = new Thread(new Runnable() {
+			public void run() {
+				unitOfWork.execute(new OrientDatabaseCallback<ODatabaseRecord, Void>() {
+					public Void doInDatabase(ODatabaseRecord database) {
+						bound.set(ODatabaseRecordThreadLocal.INSTANCE.getIfDefined());
+						return null;
+					}
+				});
+			}
+		});
+		other.start();
+		other.join();
+		
+		assertSame(unitOfWork.getDatabase(), bound.get());
+		assertEquals(1, pool.getStatistics().getActiveCount());
+		
+		unitOfWork.close();
+		unitOfWork.close();
+		assertTrue(unitOfWork.isClosed());
+		assertEquals(0, pool.getStatistics().getActiveCount());
+		assertSame(outer, ODatabaseRecordThreadLocal.INSTANCE.getIfDefined());
+	}
+	
+	@Test
+	public void execute_manyThreadsStayWithinPoolSize() throws Exception {
+		final int threadCount = 10000;
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicInteger inUse = new AtomicInteger();
+		final AtomicInteger maxInUse = new AtomicInteger();
+		final AtomicInteger wrongBinding = new AtomicInteger();
+		final AtomicInteger leftBound = new AtomicInteger();
+		final AtomicInteger done = new AtomicInteger();
+		
+		List<Thread> threads = new ArrayList<Thread>(threadCount);
+		for (int i = 0; i < threadCount; i++) {
+			Thread thread = new Thread(null, new Runnable() {
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					template.execute(new OrientDatabaseCallback<ODatabaseRecord, Void>() {
+						public Void doInDatabase(ODatabaseRecord database) {
+							int current = inUse.incrementAndGet();
+							int max = maxInUse.get();
+							while (current > max && !maxInUse.compareAndSet(max, current)) {
+								max = maxInUse.get();
+							}
+							if (ODatabaseRecordThreadLocal.INSTANCE.getIfDefined() != database) {
+								wrongBinding.incrementAndGet();
+							}
+							Thread.yield();
+							inUse.decrementAndGet();
+							return null;
+						}
+					});
+					if (ODatabaseRecordThreadLocal.INSTANCE.isDefined()) {
+						leftBound.incrementAndGet();
+					}
+					done.incrementAndGet();
+				}
+			}, "unit-of-work-" + i, 64 * 1024);
+			thread.start();
+			threads.add(thread);
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		
+		assertEquals(threadCount, done.get());
+		assertTrue("at most " + POOL_SIZE + " databases may be in use, was " + maxInUse.get(), maxInUse.get() <= POOL_SIZE);
+		assertTrue(pool.getStatistics().getCreatedCount() <= POOL_SIZE);
+		assertEquals(threadCount, pool.getStatistics().getAcquiredCount());
+		assertEquals(0, wrongBinding.get());
+		assertEquals(0, leftBound.get());
+		assertFalse(pool.getStatistics().getTimeoutCount() > 0);
+	}
+	
+}
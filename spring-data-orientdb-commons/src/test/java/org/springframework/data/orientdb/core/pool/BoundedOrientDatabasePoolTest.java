@@ -0,0 +1,213 @@
+package org.springframework.data.orientdb.core.pool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.data.authentication.UserCredentials;
+import org.springframework.data.orientdb.CannotGetOriendDbConnectionException;
+import org.springframework.data.orientdb.core.AbstractOrientDatabaseFactory;
+import org.springframework.data.orientdb.core.OrientDatabaseFacotry;
+import org.springframework.data.orientdb.mock.OrientDocumentDatabaseFactoryMock;
+
+import com.orientechnologies.orient.core.cache.OLevel1RecordCache;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.ODatabaseRecord;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.tx.OTransaction;
+
+/**
+ * 
+ * @author Matej Zachar
+ *
+ */
+public class BoundedOrientDatabasePoolTest {
+
+	private OrientDatabaseFacotry<ODatabaseRecord> source;
+	
+	private BoundedOrientDatabasePool<ODatabaseRecord> pool;
+	
+	@Before
+	@SuppressWarnings("unchecked")
+	public void setUp() throws Exception {
+		source = mock(OrientDatabaseFacotry.class);
+		when(source.getDatabase()).thenAnswer(new Answer<ODatabaseRecord>() {
+			public ODatabaseRecord answer(InvocationOnMock invocation) {
+				ODatabaseRecord db = mock(ODatabaseRecord.class);
+				when(db.getTransaction()).thenReturn(mock(OTransaction.class));
+				when(db.getLevel1Cache()).thenReturn(mock(OLevel1RecordCache.class));
+				return db;
+			}
+		});
+		
+		pool = new BoundedOrientDatabasePool<ODatabaseRecord>();
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		pool.close();
+		ODatabaseRecordThreadLocal.INSTANCE.remove();
+	}
+
+	@Test
+	public void start_warmUp() {
+		pool.setMinSize(2);
+		pool.start(source);
+		
+		assertEquals(2, pool.getStatistics().getCreatedCount());
+		assertEquals(2, pool.getStatistics().getIdleCount());
+	}
+	
+	@Test
+	public void factory_startsPoolOnInitialization() {
+		AbstractOrientDatabaseFactory<ODatabaseRecord> factory = new AbstractOrientDatabaseFactory<ODatabaseRecord>("memory:test", "admin", "admin") {
+			@Override
+			protected ODatabaseRecord doGetDatabase(String uri, UserCredentials credentials) {
+				return source.getDatabase();
+			}
+		};
+		pool.setMinSize(1);
+		factory.setPool(pool);
+		assertEquals(0, pool.getStatistics().getCreatedCount());
+		
+		factory.afterPropertiesSet();
+		assertEquals(1, pool.getStatistics().getCreatedCount());
+		
+		factory.destroy();
+		assertEquals(1, pool.getStatistics().getDestroyedCount());
+	}
+	
+	@Test
+	public void acquire_reusesReleasedDatabase() {
+		pool.start(source);
+		
+		ODatabaseRecord db1 = pool.acquire();
+		assertEquals(1, pool.getStatistics().getActiveCount());
+		pool.release(db1);
+		
+		ODatabaseRecord db2 = pool.acquire();
+		assertSame(db1, db2);
+		assertEquals(1, pool.getStatistics().getCreatedCount());
+		assertEquals(2, pool.getStatistics().getAcquiredCount());
+		assertEquals(2, pool.getStatistics().getAcquireLatency().getCount());
+	}
+	
+	@Test
+	public void acquire_uncontendedDoesNotWait() {
+		pool.start(source);
+		
+		pool.release(pool.acquire());
+		pool.release(pool.acquire());
+		
+		assertEquals(0, pool.getStatistics().getMaxWaitingCount());
+	}
+	
+	@Test
+	public void release_unbindsDatabaseFromThread() {
+		pool.start(source);
+		
+		ODatabaseRecord db = pool.acquire();
+		assertSame(db, ODatabaseRecordThreadLocal.INSTANCE.getIfDefined());
+		pool.release(db);
+		
+		assertFalse(ODatabaseRecordThreadLocal.INSTANCE.isDefined());
+	}
+	
+	@Test
+	public void release_twiceKeepsDatabaseOpen() {
+		pool.start(source);
+		
+		ODatabaseRecord db = pool.acquire();
+		pool.release(db);
+		pool.release(db);
+		
+		verify(db, never()).close();
+		assertEquals(1, pool.getStatistics().getIdleCount());
+		assertSame(db, pool.acquire());
+		assertEquals(1, pool.getStatistics().getActiveCount());
+	}
+	
+	@Test
+	public void acquire_doesNotServeRecordsChangedByOtherDatabase() {
+		OrientDocumentDatabaseFactoryMock factory = new OrientDocumentDatabaseFactoryMock("memory:poolCacheTest", "admin", "admin");
+		BoundedOrientDatabasePool<ODatabaseDocumentTx> documentPool = new BoundedOrientDatabasePool<ODatabaseDocumentTx>();
+		documentPool.start(factory);
+		
+		ODatabaseDocumentTx other = factory.getDatabase();
+		try {
+			ORID rid = other.save(new ODocument("Animal").field("name", "cat")).getIdentity();
+			
+			ODatabaseDocumentTx db = documentPool.acquire();
+			assertEquals("cat", db.<ODocument>load(rid).field("name"));
+			documentPool.release(db);
+			
+			ODatabaseRecordThreadLocal.INSTANCE.set(other);
+			other.save(other.<ODocument>load(rid).field("name", "dog"));
+			
+			assertSame(db, documentPool.acquire());
+			assertEquals("dog", db.<ODocument>load(rid).field("name"));
+			documentPool.release(db);
+			
+		} finally {
+			documentPool.close();
+			ODatabaseRecordThreadLocal.INSTANCE.set(other);
+			other.drop();
+		}
+	}
+	
+	@Test
+	public void acquire_exhausted() {
+		pool.setMaxSize(1);
+		pool.setAcquireTimeout(10);
+		pool.start(source);
+		
+		pool.acquire();
+		try {
+			pool.acquire();
+		} catch (CannotGetOriendDbConnectionException e) {
+			assertEquals(1, pool.getStatistics().getTimeoutCount());
+			return;
+		}
+		throw new AssertionError("Exhausted pool has to fail after acquire timeout");
+	}
+	
+	@Test
+	public void release_closedDatabaseIsDiscarded() {
+		pool.start(source);
+		
+		ODatabaseRecord db1 = pool.acquire();
+		when(db1.isClosed()).thenReturn(true);
+		pool.release(db1);
+		
+		assertNotSame(db1, pool.acquire());
+		assertEquals(2, pool.getStatistics().getCreatedCount());
+	}
+	
+	@Test
+	public void evictIdle() throws Exception {
+		pool.setIdleTimeout(1);
+		pool.start(source);
+		
+		ODatabaseRecord db = pool.acquire();
+		pool.release(db);
+		Thread.sleep(5);
+		pool.evictIdle();
+		
+		verify(db).close();
+		assertEquals(0, pool.getStatistics().getIdleCount());
+		assertEquals(1, pool.getStatistics().getDestroyedCount());
+	}
+	
+}
@@ -0,0 +1,71 @@
+package org.springframework.data.orientdb.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.authentication.UserCredentials;
+import org.springframework.data.orientdb.core.AbstractOrientDatabaseFactory;
+
+import com.orientechnologies.orient.core.db.record.ODatabaseRecord;
+
+/**
+ * 
+ * @author Matej Zachar
+ *
+ */
+public class MetricsOrientInstrumentationTest {
+
+	private MetricsOrientInstrumentation instrumentation;
+	
+	@Before
+	public void setUp() throws Exception {
+		instrumentation = new MetricsOrientInstrumentation();
+	}
+	
+	@Test
+	public void record_perOperationAndEntity() {
+		instrumentation.record(OrientOperation.READ, String.class, TimeUnit.MILLISECONDS.toNanos(2), false);
+		instrumentation.record(OrientOperation.READ, Integer.class, TimeUnit.MILLISECONDS.toNanos(4), true);
+		instrumentation.record(OrientOperation.COMMIT, null, TimeUnit.MILLISECONDS.toNanos(1), false);
+		
+		assertEquals(2, instrumentation.getMetrics(OrientOperation.READ).getCount());
+		assertEquals(1, instrumentation.getMetrics(OrientOperation.READ).getFailedCount());
+		assertEquals(4, instrumentation.getMetrics(OrientOperation.READ).getLatency().getMax(TimeUnit.MILLISECONDS));
+		assertEquals(1, instrumentation.getMetrics(OrientOperation.READ, String.class).getCount());
+		assertEquals(0, instrumentation.getMetrics(OrientOperation.WRITE, String.class).getCount());
+		assertEquals(1, instrumentation.getMetrics(OrientOperation.COMMIT).getCount());
+		assertNull(instrumentation.getMetrics(OrientOperation.READ, Long.class));
+		assertEquals(2, instrumentation.getEntityClasses().size());
+		
+		instrumentation.reset();
+		assertEquals(0, instrumentation.getMetrics(OrientOperation.READ).getCount());
+		assertTrue(instrumentation.getEntityClasses().isEmpty());
+	}
+	
+	@Test
+	public void factory_recordsAcquireOnlyWhenEnabled() {
+		AbstractOrientDatabaseFactory<ODatabaseRecord> factory = new AbstractOrientDatabaseFactory<ODatabaseRecord>("memory:test", "admin", "admin") {
+			@Override
+			protected ODatabaseRecord doGetDatabase(String uri, UserCredentials credentials) {
+				return mock(ODatabaseRecord.class);
+			}
+		};
+		factory.setInstrumentation(instrumentation);
+		
+		factory.getDatabase();
+		assertEquals(1, instrumentation.getMetrics(OrientOperation.ACQUIRE).getCount());
+		
+		instrumentation.setEnabled(false);
+		assertFalse(instrumentation.isEnabled());
+		factory.getDatabase();
+		assertEquals(1, instrumentation.getMetrics(OrientOperation.ACQUIRE).getCount());
+	}
+	
+}
@@ -69,6 +69,41 @@ public class OrientTransactionManagerTest {
 		assertTrue(txObject.getDatabaseHolder().getDatabase().getTransaction().isActive());
 	}
 
+	@Test
+	public void testDoBegin_readOnly() {
+		DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+		definition.setReadOnly(true);
+		
+		OrientTransactionObject txObject = (OrientTransactionObject) transactionManager.doGetTransaction();
+		transactionManager.doBegin(txObject, definition);
+		
+		assertTrue(txObject.isReadOnly());
+		assertTrue(txObject.getDatabaseHolder().isTransactionActive());
+		assertTrue(TransactionSynchronizationManager.hasResource(factory));
+		
+		// no OrientDB transaction is started for read-only work
+		assertThat(txObject.getDatabaseHolder().getDatabase().getTransaction().isActive()).isFalse();
+		
+		transactionManager.doCleanupAfterCompletion(txObject);
+	}
+	
+	@Test
+	public void testReadOnlyFactory() {
+		OrientDocumentDatabaseFactoryMock readOnlyFactory = new OrientDocumentDatabaseFactoryMock("memory:testDb", "admin", "admin");
+		transactionManager.setReadOnlyFactory(readOnlyFactory);
+		
+		DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+		definition.setReadOnly(true);
+		TransactionStatus status = transactionManager.getTransaction(definition);
+		
+		// bound under the main factory so data access code finds it
+		ODatabaseRecord boundDb = OrientDatabaseUtils.getDatabase(factory);
+		assertThat(boundDb.getTransaction().isActive()).isFalse();
+		
+		transactionManager.commit(status);
+		assertThat(TransactionSynchronizationManager.hasResource(factory)).isFalse();
+	}
+	
 	@Test
 	public void testCloseDatabaseConnectionAfterFailedBegin() {
 		OrientTransactionObject txObject = (OrientTransactionObject) transactionManager.doGetTransaction();
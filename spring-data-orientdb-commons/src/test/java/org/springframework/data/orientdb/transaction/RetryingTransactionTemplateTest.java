@@ -0,0 +1,107 @@
+package org.springframework.data.orientdb.transaction;
+
+import static org.fest.assertions.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.orientechnologies.orient.core.db.record.ORecordOperation;
+import com.orientechnologies.orient.core.exception.OConcurrentModificationException;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.version.OSimpleVersion;
+
+/**
+ * 
+ * @author Matej Zachar
+ *
+ */
+public class RetryingTransactionTemplateTest {
+
+	private PlatformTransactionManager transactionManager;
+	private RetryingTransactionTemplate template;
+
+	@Before
+	public void setUp() {
+		// other tests may leave the thread marked as running a transaction
+		TransactionSynchronizationManager.setActualTransactionActive(false);
+		
+		transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any(TransactionDefinition.class))).thenReturn(mock(TransactionStatus.class));
+
+		template = new RetryingTransactionTemplate(transactionManager);
+		template.setInitialBackoff(1);
+		template.setMaxAttempts(3);
+	}
+
+	@Test
+	public void retriesOnConflict() {
+		String result = template.execute(new ConflictingCallback(2));
+
+		assertThat(result).isEqualTo("done");
+		assertThat(template.getConflictCount()).isEqualTo(2);
+		assertThat(template.getRetryCount()).isEqualTo(2);
+		assertThat(template.getExhaustedCount()).isEqualTo(0);
+		verify(transactionManager, times(3)).getTransaction(any(TransactionDefinition.class));
+	}
+
+	@Test
+	public void givesUpAfterMaxAttempts() {
+		try {
+			template.execute(new ConflictingCallback(5));
+			fail("Conflict expected");
+		} catch (OptimisticLockingFailureException e) {
+			// expected
+		}
+
+		assertThat(template.getConflictCount()).isEqualTo(3);
+		assertThat(template.getRetryCount()).isEqualTo(2);
+		assertThat(template.getExhaustedCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void doesNotRetryOtherFailures() {
+		try {
+			template.execute(new TransactionCallback<String>() {
+				public String doInTransaction(TransactionStatus status) {
+					throw new IllegalStateException();
+				}
+			});
+			fail("Exception expected");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		assertThat(template.getConflictCount()).isEqualTo(0);
+		verify(transactionManager, times(1)).getTransaction(any(TransactionDefinition.class));
+	}
+
+	private static class ConflictingCallback implements TransactionCallback<String> {
+
+		private int conflicts;
+
+		ConflictingCallback(int conflicts) {
+			this.conflicts = conflicts;
+		}
+
+		public String doInTransaction(TransactionStatus status) {
+			if (conflicts-- > 0) {
+				throw new OptimisticLockingFailureException("conflict", new OConcurrentModificationException(new ORecordId("#5:0"),
+						new OSimpleVersion(2), new OSimpleVersion(1), ORecordOperation.UPDATED));
+			}
+			return "done";
+		}
+	}
+
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.core;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Asynchronous variant of {@link OrientDocumentOperations}. Every operation runs on a bounded pool of worker threads,
+ * within its own unit of work on a database of the worker, and completes the returned {@link OperationFuture}.
+ * Operations do not take part in a transaction of the calling thread. When the pool and its queue are full, the call
+ * fails right away with a {@link org.springframework.core.task.TaskRejectedException}, so that overload turns into
+ * back pressure on the caller.
+ * 
+ * @author Matej Zachar
+ */
+public interface AsyncOrientDocumentOperations {
+
+	<T> OperationFuture<List<T>> findAll(Class<T> entityClass);
+
+	<T> OperationFuture<List<T>> findAll(Class<T> entityClass, String fetchPlan);
+
+	<T, P> OperationFuture<List<P>> findAll(Class<T> entityClass, Class<P> projectionClass);
+
+	<T> OperationFuture<KeysetPage<T>> findPage(Class<T> entityClass, String continuationToken, int pageSize);
+
+	<T> OperationFuture<T> findById(Object id, Class<T> entityClass);
+
+	<T> OperationFuture<T> findById(Object id, Class<T> entityClass, String fetchPlan);
+
+	<T> OperationFuture<List<T>> find(String sql, Class<T> entityClass, String fetchPlan, Object... parameters);
+
+	OperationFuture<Long> count(Class<?> entityClass);
+
+	OperationFuture<BatchInsertResult> insertAll(Collection<? extends Object> objectsToSave);
+
+	/**
+	 * @return future of the saved object, holding its record id
+	 */
+	<T> OperationFuture<T> save(T objectToSave);
+
+	OperationFuture<Void> remove(Object object);
+
+}
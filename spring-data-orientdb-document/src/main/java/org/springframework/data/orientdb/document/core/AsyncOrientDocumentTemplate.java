@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.core;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.orientdb.support.LatencyHistogram;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+
+/**
+ * {@link AsyncOrientDocumentOperations} running the operations of an {@link OrientDocumentOperations} on a fixed
+ * number of worker threads with a bounded queue. Each operation binds a database of the {@link OrientDocumentDbManager}
+ * to its worker and releases it when it completes, so a worker holds no database between operations.
+ * 
+ * <pre>
+ * AsyncOrientDocumentTemplate async = new AsyncOrientDocumentTemplate(template, dbManager);
+ * async.setThreadCount(8);
+ * async.setQueueCapacity(200);
+ * async.afterPropertiesSet();
+ * async.findById(id, Animal.class).addCallback(callback);
+ * </pre>
+ * 
+ * @author Matej Zachar
+ */
+public class AsyncOrientDocumentTemplate implements AsyncOrientDocumentOperations, InitializingBean, DisposableBean {
+
+	public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+	private final OrientDocumentOperations operations;
+	private final OrientDocumentDbManager dbManager;
+	private int threadCount = Runtime.getRuntime().availableProcessors();
+	private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+	private ThreadFactory threadFactory;
+	private ThreadPoolExecutor executor;
+
+	private final AtomicLong submittedCount = new AtomicLong();
+	private final AtomicLong rejectedCount = new AtomicLong();
+	private final AtomicLong completedCount = new AtomicLong();
+	private final AtomicLong failedCount = new AtomicLong();
+	private final LatencyHistogram queueTime = new LatencyHistogram();
+	private final LatencyHistogram executionTime = new LatencyHistogram();
+
+	public AsyncOrientDocumentTemplate(OrientDocumentOperations operations, OrientDocumentDbManager dbManager) {
+		Assert.notNull(operations, "Operations must not be null");
+		Assert.notNull(dbManager, "Database manager must not be null");
+		this.operations = operations;
+		this.dbManager = dbManager;
+	}
+
+	/**
+	 * @param threadCount
+	 *            number of worker threads, which is also the maximal number
+	 *            of databases used at the same time, defaults to the number
+	 *            of processors
+	 */
+	public void setThreadCount(int threadCount) {
+		Assert.isTrue(threadCount > 0, "Thread count has to be a positive number");
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * @param queueCapacity
+	 *            number of operations waiting for a worker, further
+	 *            operations are rejected
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		Assert.isTrue(queueCapacity > 0, "Queue capacity has to be a positive number");
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * @param threadFactory
+	 *            factory of the worker threads, daemon threads named
+	 *            <code>orientdb-async-</code> by default
+	 */
+	public void setThreadFactory(ThreadFactory threadFactory) {
+		this.threadFactory = threadFactory;
+	}
+
+	public void afterPropertiesSet() {
+		ThreadFactory factory = threadFactory;
+		if (factory == null) {
+			CustomizableThreadFactory defaultFactory = new CustomizableThreadFactory("orientdb-async-");
+			defaultFactory.setDaemon(true);
+			factory = defaultFactory;
+		}
+		executor = new ThreadPoolExecutor(threadCount, threadCount, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(queueCapacity), factory);
+	}
+
+	/**
+	 * Stops accepting operations, already submitted ones still complete.
+	 */
+	public void destroy() {
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+
+	public <T> OperationFuture<List<T>> findAll(final Class<T> entityClass) {
+		return submit(new Callable<List<T>>() {
+			public List<T> call() {
+				return operations.findAll(entityClass);
+			}
+		});
+	}
+
+	public <T> OperationFuture<List<T>> findAll(final Class<T> entityClass, final String fetchPlan) {
+		return submit(new Callable<List<T>>() {
+			public List<T> call() {
+				return operations.findAll(entityClass, fetchPlan);
+			}
+		});
+	}
+
+	public <T, P> OperationFuture<List<P>> findAll(final Class<T> entityClass, final Class<P> projectionClass) {
+		return submit(new Callable<List<P>>() {
+			public List<P> call() {
+				return operations.findAll(entityClass, projectionClass);
+			}
+		});
+	}
+
+	public <T> OperationFuture<KeysetPage<T>> findPage(final Class<T> entityClass, final String continuationToken,
+			final int pageSize) {
+		return submit(new Callable<KeysetPage<T>>() {
+			public KeysetPage<T> call() {
+				return operations.findPage(entityClass, continuationToken, pageSize);
+			}
+		});
+	}
+
+	public <T> OperationFuture<T> findById(Object id, Class<T> entityClass) {
+		return findById(id, entityClass, null);
+	}
+
+	public <T> OperationFuture<T> findById(final Object id, final Class<T> entityClass, final String fetchPlan) {
+		return submit(new Callable<T>() {
+			public T call() {
+				return operations.findById(id, entityClass, fetchPlan);
+			}
+		});
+	}
+
+	public <T> OperationFuture<List<T>> find(final String sql, final Class<T> entityClass, final String fetchPlan,
+			final Object... parameters) {
+		return submit(new Callable<List<T>>() {
+			public List<T> call() {
+				return operations.find(sql, entityClass, fetchPlan, parameters);
+			}
+		});
+	}
+
+	public OperationFuture<Long> count(final Class<?> entityClass) {
+		return submit(new Callable<Long>() {
+			public Long call() {
+				return operations.count(entityClass);
+			}
+		});
+	}
+
+	public OperationFuture<BatchInsertResult> insertAll(final Collection<? extends Object> objectsToSave) {
+		return submit(new Callable<BatchInsertResult>() {
+			public BatchInsertResult call() {
+				return operations.insertAll(objectsToSave);
+			}
+		});
+	}
+
+	public <T> OperationFuture<T> save(final T objectToSave) {
+		return submit(new Callable<T>() {
+			public T call() {
+				operations.save(objectToSave);
+				return objectToSave;
+			}
+		});
+	}
+
+	public OperationFuture<Void> remove(final Object object) {
+		return submit(new Callable<Void>() {
+			public Void call() {
+				operations.remove(object);
+				return null;
+			}
+		});
+	}
+
+	private <T> OperationFuture<T> submit(final Callable<T> operation) {
+		Assert.state(executor != null, "AsyncOrientDocumentTemplate is not initialized");
+		final long submitted = System.nanoTime();
+
+		OperationFuture<T> future = new OperationFuture<T>(new Callable<T>() {
+			public T call() throws Exception {
+				long start = System.nanoTime();
+				queueTime.record(start - submitted);
+				try {
+					// binds the database to the worker, also for operations which do not look it up first
+					dbManager.getCurrentDatabase();
+					T result = operation.call();
+					completedCount.incrementAndGet();
+					return result;
+				} catch (Exception e) {
+					failedCount.incrementAndGet();
+					throw e;
+				} finally {
+					dbManager.releaseCurrentDatabase();
+					executionTime.record(System.nanoTime() - start);
+				}
+			}
+		});
+
+		try {
+			executor.execute(future);
+		} catch (RejectedExecutionException e) {
+			rejectedCount.incrementAndGet();
+			throw new TaskRejectedException("OrientDB operation rejected, " + executor.getQueue().size()
+					+ " operations are waiting", e);
+		}
+		submittedCount.incrementAndGet();
+		return future;
+	}
+
+	/**
+	 * @return number of accepted operations
+	 */
+	public long getSubmittedCount() {
+		return submittedCount.get();
+	}
+
+	/**
+	 * @return number of operations rejected because the queue was full
+	 */
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+
+	public long getCompletedCount() {
+		return completedCount.get();
+	}
+
+	/**
+	 * @return number of operations which threw an exception
+	 */
+	public long getFailedCount() {
+		return failedCount.get();
+	}
+
+	/**
+	 * @return number of operations waiting for a worker
+	 */
+	public int getQueueSize() {
+		return executor != null ? executor.getQueue().size() : 0;
+	}
+
+	/**
+	 * @return number of workers running an operation
+	 */
+	public int getActiveCount() {
+		return executor != null ? executor.getActiveCount() : 0;
+	}
+
+	/**
+	 * @return time operations spent waiting for a worker
+	 */
+	public LatencyHistogram getQueueTime() {
+		return queueTime;
+	}
+
+	/**
+	 * @return time operations spent running on a worker
+	 */
+	public LatencyHistogram getExecutionTime() {
+		return executionTime;
+	}
+
+}
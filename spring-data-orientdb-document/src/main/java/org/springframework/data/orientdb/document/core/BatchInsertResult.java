@@ -0,0 +1,150 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.document.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a {@link OrientDocumentOperations#insertAll(Iterable, int)} call. Holds one {@link Chunk} per
+ * OrientDB transaction that was committed (or rolled back) while inserting.
+ *
+ * @author Matej Zachar
+ *
+ */
+public class BatchInsertResult {
+
+	private final List<Chunk> chunks = new ArrayList<Chunk>();
+
+	void addChunk(Chunk chunk) {
+		chunks.add(chunk);
+	}
+
+	/**
+	 * @return all chunks in the order they were written
+	 */
+	public List<Chunk> getChunks() {
+		return Collections.unmodifiableList(chunks);
+	}
+
+	/**
+	 * @return chunks which were rolled back
+	 */
+	public List<Chunk> getFailedChunks() {
+		List<Chunk> failed = new ArrayList<Chunk>();
+		for (Chunk chunk : chunks) {
+			if (chunk.isFailed()) {
+				failed.add(chunk);
+			}
+		}
+		return failed;
+	}
+
+	public boolean hasFailures() {
+		for (Chunk chunk : chunks) {
+			if (chunk.isFailed()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return number of documents which were successfully committed
+	 */
+	public long getInsertedCount() {
+		long count = 0;
+		for (Chunk chunk : chunks) {
+			if (!chunk.isFailed()) {
+				count += chunk.getSize();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return total time spent in all chunks in milliseconds
+	 */
+	public long getElapsedMillis() {
+		long elapsed = 0;
+		for (Chunk chunk : chunks) {
+			elapsed += chunk.getElapsedMillis();
+		}
+		return elapsed;
+	}
+
+	@Override
+	public String toString() {
+		return "BatchInsertResult [chunks=" + chunks.size() + ", inserted=" + getInsertedCount() + ", failed="
+				+ getFailedChunks().size() + ", elapsedMillis=" + getElapsedMillis() + "]";
+	}
+
+	/**
+	 * Single chunk of documents written within one OrientDB transaction.
+	 */
+	public static class Chunk {
+
+		private final long firstIndex;
+		private final int size;
+		private final long elapsedMillis;
+		private final Throwable failure;
+
+		Chunk(long firstIndex, int size, long elapsedMillis, Throwable failure) {
+			this.firstIndex = firstIndex;
+			this.size = size;
+			this.elapsedMillis = elapsedMillis;
+			this.failure = failure;
+		}
+
+		/**
+		 * @return zero based position of the first object of this chunk within the source
+		 */
+		public long getFirstIndex() {
+			return firstIndex;
+		}
+
+		public int getSize() {
+			return size;
+		}
+
+		/**
+		 * @return time spent converting and committing this chunk in milliseconds
+		 */
+		public long getElapsedMillis() {
+			return elapsedMillis;
+		}
+
+		public boolean isFailed() {
+			return failure != null;
+		}
+
+		/**
+		 * @return cause of the rollback or <code>null</code> if the chunk was committed
+		 */
+		public Throwable getFailure() {
+			return failure;
+		}
+
+		@Override
+		public String toString() {
+			return "Chunk [firstIndex=" + firstIndex + ", size=" + size + ", elapsedMillis=" + elapsedMillis
+					+ (failure != null ? ", failure=" + failure : "") + "]";
+		}
+	}
+
+}
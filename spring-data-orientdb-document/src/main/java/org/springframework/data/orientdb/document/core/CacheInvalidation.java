@@ -0,0 +1,54 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.document.core;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+
+import com.orientechnologies.orient.core.id.ORID;
+
+/**
+ * Records written within one transaction, dropped from the {@link EntityCache}
+ * once the transaction completes, whether committed or rolled back.
+ * 
+ * @author Matej Zachar
+ * 
+ */
+class CacheInvalidation extends TransactionSynchronizationAdapter {
+
+	private final EntityCache entityCache;
+	private final Set<ORID> rids = new HashSet<ORID>();
+
+	CacheInvalidation(EntityCache entityCache) {
+		this.entityCache = entityCache;
+	}
+
+	void add(ORID rid) {
+		rids.add(rid.copy());
+	}
+
+	@Override
+	public void afterCompletion(int status) {
+		for (ORID rid : rids) {
+			entityCache.invalidate(rid);
+		}
+		rids.clear();
+	}
+
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.document.core;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * {@link Iterator} holding a database until it is closed or fully consumed. Always close it when not read till
+ * the end, e.g.:
+ *
+ * <pre>
+ * CloseableIterator&lt;Animal&gt; animals = operations.stream(Animal.class);
+ * try {
+ * 	while (animals.hasNext()) {
+ * 		// ... use animals.next() here
+ * 	}
+ * } finally {
+ * 	animals.close();
+ * }
+ * </pre>
+ *
+ * @author Matej Zachar
+ *
+ */
+public interface CloseableIterator<T> extends Iterator<T>, Closeable {
+
+	/**
+	 * Releases the underlying database. Calling it more than once has no effect.
+	 */
+	void close();
+
+}
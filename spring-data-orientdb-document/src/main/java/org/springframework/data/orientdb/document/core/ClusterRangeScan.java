@@ -0,0 +1,104 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.document.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.springframework.data.orientdb.document.core.convert.OrientDocumentConverter;
+
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.ODatabaseRecord;
+import com.orientechnologies.orient.core.id.OClusterPosition;
+import com.orientechnologies.orient.core.iterator.ORecordIteratorCluster;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+/**
+ * One split of a parallel scan, reads and converts the records of a cluster within a position range. Runs on its
+ * own database obtained from the {@link OrientDocumentDbManager}, as databases must not be shared between threads.
+ *
+ * @author Matej Zachar
+ *
+ */
+class ClusterRangeScan<T> implements Callable<List<T>> {
+
+	private static final int CHUNK_SIZE = 1000;
+
+	private final OrientDocumentDbManager dbManager;
+	private final OrientDocumentConverter converter;
+	private final Class<T> entityClass;
+	private final String clusterName;
+	private final OClusterPosition from;
+	private final OClusterPosition to;
+	private final String fetchPlan;
+
+	/**
+	 * @param from first position to read
+	 * @param to last position to read, inclusive
+	 * @param fetchPlan fetch plan of the read records, may be <code>null</code>
+	 */
+	ClusterRangeScan(OrientDocumentDbManager dbManager, OrientDocumentConverter converter, Class<T> entityClass,
+			String clusterName, OClusterPosition from, OClusterPosition to, String fetchPlan) {
+		this.dbManager = dbManager;
+		this.converter = converter;
+		this.entityClass = entityClass;
+		this.clusterName = clusterName;
+		this.from = from;
+		this.to = to;
+		this.fetchPlan = fetchPlan;
+	}
+
+	public List<T> call() {
+		// acquiring binds the new database already
+		ODatabaseRecord previous = ODatabaseRecordThreadLocal.INSTANCE.getIfDefined();
+		ODatabaseDocumentTx db = dbManager.getUnboundDatabase();
+		try {
+			ODatabaseRecordThreadLocal.INSTANCE.set(db);
+
+			List<T> result = new ArrayList<T>();
+			List<ODocument> chunk = new ArrayList<ODocument>(CHUNK_SIZE);
+			ORecordIteratorCluster<ODocument> iterator = db.browseCluster(clusterName, ODocument.class, from, to,
+					false);
+			iterator.setFetchPlan(fetchPlan);
+			while (iterator.hasNext()) {
+				chunk.add(iterator.next());
+				if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+					// converted in chunks so that links of a whole chunk are loaded at once
+					result.addAll(converter.read(entityClass, chunk));
+					chunk.clear();
+				}
+			}
+			return result;
+		} finally {
+			dbManager.releaseDatabase(db);
+			// pooled workers must not keep the released database bound
+			if (previous != null) {
+				ODatabaseRecordThreadLocal.INSTANCE.set(previous);
+			} else {
+				ODatabaseRecordThreadLocal.INSTANCE.remove();
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ClusterRangeScan [cluster=" + clusterName + ", from=" + from + ", to=" + to + "]";
+	}
+
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.core;
+
+/**
+ * Source of entities streamed to a {@link DocumentSubscriber} as fast as it requests them. Follows the contract of
+ * the Reactive Streams <code>Publisher</code>, so it can be adapted to any Reactive Streams library with a few lines.
+ * Every subscription reads the entities anew.
+ * 
+ * @author Matej Zachar
+ */
+public interface DocumentPublisher<T> {
+
+	void subscribe(DocumentSubscriber<? super T> subscriber);
+
+}
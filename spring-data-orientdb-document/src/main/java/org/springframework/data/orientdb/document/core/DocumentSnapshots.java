@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.document.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.util.ObjectUtils;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+/**
+ * Snapshots of documents loaded within one transaction, used by the dirty
+ * checking save of {@link OrientDocumentTemplate} to find out which fields of
+ * an entity changed. Holds at most <code>limit</code> snapshots, the least
+ * recently used ones are dropped first.
+ * 
+ * @author Matej Zachar
+ * 
+ */
+class DocumentSnapshots extends LinkedHashMap<ORID, DocumentSnapshots.Snapshot> {
+
+	private static final long serialVersionUID = 2706217911493911052L;
+
+	private final int limit;
+
+	DocumentSnapshots(int limit) {
+		super(16, 0.75f, true);
+		this.limit = limit;
+	}
+
+	@Override
+	protected boolean removeEldestEntry(Map.Entry<ORID, Snapshot> eldest) {
+		return size() > limit;
+	}
+
+	/**
+	 * Version of the record plus hash of every field value, the values
+	 * themselves are not kept.
+	 */
+	static class Snapshot {
+
+		private final int version;
+		private final String[] fieldNames;
+		private final int[] hashes;
+
+		private Snapshot(int version, String[] fieldNames, int[] hashes) {
+			this.version = version;
+			this.fieldNames = fieldNames;
+			this.hashes = hashes;
+		}
+
+		static Snapshot of(ODocument oDoc) {
+			String[] fieldNames = oDoc.fieldNames();
+			int[] hashes = new int[fieldNames.length];
+			for (int i = 0; i < fieldNames.length; i++) {
+				hashes[i] = ObjectUtils.nullSafeHashCode(oDoc.field(fieldNames[i]));
+			}
+			return new Snapshot(oDoc.getVersion(), fieldNames, hashes);
+		}
+
+		int getVersion() {
+			return version;
+		}
+
+		/**
+		 * @return whether the field had different value when the snapshot was
+		 *         taken
+		 */
+		boolean isChanged(String fieldName, Object value) {
+			for (int i = 0; i < fieldNames.length; i++) {
+				if (fieldNames[i].equals(fieldName)) {
+					return hashes[i] != ObjectUtils.nullSafeHashCode(value);
+				}
+			}
+			return value != null;
+		}
+
+		String[] getFieldNames() {
+			return fieldNames;
+		}
+	}
+
+}
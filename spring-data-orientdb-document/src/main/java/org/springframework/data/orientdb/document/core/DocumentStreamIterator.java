@@ -0,0 +1,143 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.document.core;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.springframework.data.orientdb.document.core.convert.OrientDocumentConverter;
+
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.ODatabaseRecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+/**
+ * Lazily converting iterator over documents. Documents are read from the source and converted in chunks of
+ * <code>prefetchSize</code>, so at most one chunk is held in memory and links of the whole chunk are loaded at
+ * once. An own database is released as soon as the source is exhausted or the iterator is closed, a shared one
+ * (e.g. bound to the current transaction) is left to its owner.
+ *
+ * @author Matej Zachar
+ *
+ */
+class DocumentStreamIterator<T> implements CloseableIterator<T> {
+
+	private final ODatabaseDocumentTx db;
+	private final OrientDocumentDbManager dbManager;
+	private final Iterator<ODocument> source;
+	private final OrientDocumentConverter converter;
+	private final Class<T> entityClass;
+	private final int prefetchSize;
+	private final ArrayDeque<T> buffer;
+	private final boolean shared;
+
+	private boolean closed = false;
+
+	DocumentStreamIterator(ODatabaseDocumentTx db, OrientDocumentDbManager dbManager, Iterator<ODocument> source,
+			OrientDocumentConverter converter, Class<T> entityClass, int prefetchSize, boolean shared) {
+		this.db = db;
+		this.dbManager = dbManager;
+		this.source = source;
+		this.converter = converter;
+		this.entityClass = entityClass;
+		this.prefetchSize = prefetchSize;
+		this.buffer = new ArrayDeque<T>(prefetchSize);
+		this.shared = shared;
+	}
+
+	public boolean hasNext() {
+		if (closed) {
+			return false;
+		}
+		if (buffer.isEmpty()) {
+			prefetch();
+		}
+		if (buffer.isEmpty()) {
+			close();
+			return false;
+		}
+		return true;
+	}
+
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		return buffer.poll();
+	}
+
+	public void remove() {
+		throw new UnsupportedOperationException("Removing documents through the stream is not supported");
+	}
+
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		buffer.clear();
+		if (!shared) {
+			dbManager.releaseDatabase(db);
+		}
+	}
+
+	private void prefetch() {
+		ODatabaseRecord previous = attach();
+		try {
+			if (!shared) {
+				// documents of the previous chunk were already handed out, do not keep them in the local cache
+				db.getLevel1Cache().invalidate();
+			}
+			List<ODocument> chunk = new ArrayList<ODocument>(prefetchSize);
+			while (chunk.size() < prefetchSize && source.hasNext()) {
+				chunk.add(source.next());
+			}
+			if (!chunk.isEmpty()) {
+				buffer.addAll(converter.read(entityClass, chunk));
+			}
+		} catch (RuntimeException e) {
+			close();
+			throw e;
+		} finally {
+			detach(previous);
+		}
+	}
+
+	/**
+	 * Binds the iterated database to the OrientDB thread local, as the caller may use other database in between.
+	 * 
+	 * @return database bound before
+	 */
+	private ODatabaseRecord attach() {
+		ODatabaseRecord previous = ODatabaseRecordThreadLocal.INSTANCE.getIfDefined();
+		ODatabaseRecordThreadLocal.INSTANCE.set(db);
+		return previous;
+	}
+
+	private void detach(ODatabaseRecord previous) {
+		if (previous != null) {
+			ODatabaseRecordThreadLocal.INSTANCE.set(previous);
+		} else {
+			ODatabaseRecordThreadLocal.INSTANCE.remove();
+		}
+	}
+
+}
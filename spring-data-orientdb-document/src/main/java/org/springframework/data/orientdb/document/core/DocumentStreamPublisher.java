@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.core;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.data.orientdb.document.core.convert.OrientDocumentConverter;
+
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.ODatabaseRecord;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+/**
+ * {@link DocumentPublisher} reading documents from a {@link Source} in chunks sized by the outstanding demand. Each
+ * subscription acquires its own database on the first request and holds it until the stream ends. Signals are
+ * emitted on the thread calling {@link DocumentSubscription#request}, serialized by a drain loop, and the database
+ * is bound to the OrientDB thread local only while a chunk is read.
+ *
+ * @author Matej Zachar
+ *
+ */
+class DocumentStreamPublisher<T> implements DocumentPublisher<T> {
+
+	/**
+	 * Reads the documents of a stream, used by one subscription at a time.
+	 */
+	interface Source {
+
+		/**
+		 * @return at most <code>max</code> next documents, fewer only when the source is exhausted
+		 */
+		List<ODocument> read(ODatabaseDocumentTx db, int max);
+	}
+
+	/**
+	 * Creates a fresh source for every subscription.
+	 */
+	interface SourceFactory {
+
+		Source create();
+	}
+
+	private final OrientDocumentDbManager dbManager;
+	private final OrientDocumentConverter converter;
+	private final Class<T> entityClass;
+	private final SourceFactory sourceFactory;
+	private final int maxChunkSize;
+
+	DocumentStreamPublisher(OrientDocumentDbManager dbManager, OrientDocumentConverter converter, Class<T> entityClass,
+			SourceFactory sourceFactory, int maxChunkSize) {
+		this.dbManager = dbManager;
+		this.converter = converter;
+		this.entityClass = entityClass;
+		this.sourceFactory = sourceFactory;
+		this.maxChunkSize = maxChunkSize;
+	}
+
+	public void subscribe(DocumentSubscriber<? super T> subscriber) {
+		if (subscriber == null) {
+			throw new NullPointerException("Subscriber must not be null");
+		}
+		subscriber.onSubscribe(new StreamSubscription(subscriber, sourceFactory.create()));
+	}
+
+	private class StreamSubscription implements DocumentSubscription {
+
+		private final DocumentSubscriber<? super T> subscriber;
+		private final Source source;
+		private final AtomicLong requested = new AtomicLong();
+		private final AtomicInteger wip = new AtomicInteger();
+		private volatile boolean cancelled = false;
+		private volatile Throwable invalidRequest;
+
+		// accessed only within the drain loop
+		private ODatabaseDocumentTx db;
+		private boolean done = false;
+
+		StreamSubscription(DocumentSubscriber<? super T> subscriber, Source source) {
+			this.subscriber = subscriber;
+			this.source = source;
+		}
+
+		public void request(long n) {
+			if (n <= 0) {
+				invalidRequest = new IllegalArgumentException("Requested number of entities has to be positive, was "
+						+ n);
+			} else {
+				long current;
+				long next;
+				do {
+					current = requested.get();
+					next = current + n < 0 ? Long.MAX_VALUE : current + n;
+				} while (!requested.compareAndSet(current, next));
+			}
+			drain();
+		}
+
+		public void cancel() {
+			cancelled = true;
+			drain();
+		}
+
+		/**
+		 * Emits on the calling thread unless another thread is emitting already, which then repeats the loop
+		 * for the signals it missed.
+		 */
+		private void drain() {
+			if (wip.getAndIncrement() != 0) {
+				return;
+			}
+			int missed = 1;
+			do {
+				try {
+					emit();
+				} catch (RuntimeException e) {
+					// thrown by the subscriber, do not leak the database
+					release();
+					wip.set(0);
+					throw e;
+				}
+				missed = wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void emit() {
+			if (done) {
+				return;
+			}
+			if (cancelled) {
+				release();
+				return;
+			}
+			if (invalidRequest != null) {
+				release();
+				subscriber.onError(invalidRequest);
+				return;
+			}
+
+			long demand = requested.get();
+			while (demand > 0) {
+				int size = (int) Math.min(demand, maxChunkSize);
+				List<T> chunk;
+				try {
+					chunk = readChunk(size);
+				} catch (RuntimeException e) {
+					release();
+					subscriber.onError(e);
+					return;
+				}
+
+				for (T entity : chunk) {
+					if (cancelled) {
+						release();
+						return;
+					}
+					subscriber.onNext(entity);
+				}
+				if (chunk.size() < size) {
+					release();
+					subscriber.onComplete();
+					return;
+				}
+				demand = demand == Long.MAX_VALUE ? demand : requested.addAndGet(-chunk.size());
+				if (cancelled) {
+					release();
+					return;
+				}
+			}
+		}
+
+		private List<T> readChunk(int size) {
+			// acquiring binds the new database already
+			ODatabaseRecord previous = ODatabaseRecordThreadLocal.INSTANCE.getIfDefined();
+			if (db == null) {
+				db = dbManager.getUnboundDatabase();
+			}
+			ODatabaseRecordThreadLocal.INSTANCE.set(db);
+			try {
+				// documents of the previous chunk were already handed out, do not keep them in the local cache
+				db.getLevel1Cache().invalidate();
+				return converter.read(entityClass, source.read(db, size));
+			} finally {
+				if (previous != null) {
+					ODatabaseRecordThreadLocal.INSTANCE.set(previous);
+				} else {
+					ODatabaseRecordThreadLocal.INSTANCE.remove();
+				}
+			}
+		}
+
+		private void release() {
+			done = true;
+			if (db != null) {
+				ODatabaseDocumentTx released = db;
+				db = null;
+				dbManager.releaseDatabase(released);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.core;
+
+/**
+ * Receiver of the entities of a {@link DocumentPublisher}. Signals are never sent concurrently, nothing but
+ * {@link #onSubscribe} is signalled before entities are {@link DocumentSubscription#request requested}, and after
+ * {@link #onError} or {@link #onComplete} nothing is signalled anymore.
+ * 
+ * @author Matej Zachar
+ */
+public interface DocumentSubscriber<T> {
+
+	void onSubscribe(DocumentSubscription subscription);
+
+	void onNext(T entity);
+
+	void onError(Throwable failure);
+
+	void onComplete();
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.core;
+
+/**
+ * Link between a {@link DocumentPublisher} and one of its subscribers, through which the subscriber controls the
+ * flow of entities. Both methods may be called from any thread, including from within
+ * {@link DocumentSubscriber#onNext}.
+ * 
+ * @author Matej Zachar
+ */
+public interface DocumentSubscription {
+
+	/**
+	 * @param n
+	 *            number of further entities the subscriber is ready to
+	 *            receive, {@link Long#MAX_VALUE} for all of them
+	 */
+	void request(long n);
+
+	/**
+	 * Stops the stream and releases its database, entities may still be delivered for a short while.
+	 */
+	void cancel();
+
+}
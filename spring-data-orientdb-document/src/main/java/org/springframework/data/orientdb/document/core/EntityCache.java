@@ -0,0 +1,216 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.document.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.util.Assert;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.version.ORecordVersion;
+
+/**
+ * Second level cache of documents shared by all transactions, keyed by record id. Documents are kept in their
+ * serialized form, so every lookup gets its own copy and cached content can not be changed by the caller. At most
+ * <code>maxSize</code> documents are held, the least recently used ones are evicted first.
+ * <p>
+ * Used by {@link OrientDocumentTemplate#findById} for entities marked
+ * {@link org.springframework.data.orientdb.document.core.mapping.Document#cacheable() cacheable}, writes through the
+ * template invalidate the cached documents again.
+ * 
+ * @author Matej Zachar
+ * 
+ */
+public class EntityCache {
+
+	public static final int DEFAULT_MAX_SIZE = 10000;
+
+	private final Map<ORID, Entry> entries;
+
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+	private final AtomicLong expirationCount = new AtomicLong();
+	private final AtomicLong staleCount = new AtomicLong();
+	private final AtomicLong invalidationCount = new AtomicLong();
+
+	public EntityCache() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	public EntityCache(final int maxSize) {
+		Assert.isTrue(maxSize > 0, "Cache size has to be a positive number");
+		this.entries = new LinkedHashMap<ORID, Entry>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = -4527306425693212263L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<ORID, Entry> eldest) {
+				if (size() > maxSize) {
+					evictionCount.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * @return copy of the cached document, <code>null</code> when it is not cached or expired
+	 */
+	public ODocument get(ORID rid) {
+		Entry entry;
+		synchronized (entries) {
+			entry = entries.get(rid);
+			if (entry != null && entry.isExpired(System.currentTimeMillis())) {
+				entries.remove(rid);
+				expirationCount.incrementAndGet();
+				entry = null;
+			}
+		}
+
+		if (entry == null) {
+			missCount.incrementAndGet();
+			return null;
+		}
+		hitCount.incrementAndGet();
+		return entry.toDocument(rid);
+	}
+
+	/**
+	 * @param oDoc
+	 *            persistent document as stored in the database
+	 * @param ttl
+	 *            milliseconds the document stays valid, <code>0</code> for no expiration
+	 */
+	public void put(ODocument oDoc, long ttl) {
+		ORID rid = oDoc.getIdentity().copy();
+		Entry entry = new Entry(oDoc.toStream(), oDoc.getRecordVersion().copy(), ttl > 0 ? System
+				.currentTimeMillis() + ttl : 0);
+		synchronized (entries) {
+			entries.put(rid, entry);
+		}
+	}
+
+	/**
+	 * Drop the document because it changed in the database.
+	 */
+	public void invalidate(ORID rid) {
+		synchronized (entries) {
+			if (entries.remove(rid) != null) {
+				invalidationCount.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Drop the document because its cached version turned out to be older than the stored one.
+	 */
+	void evictStale(ORID rid) {
+		synchronized (entries) {
+			entries.remove(rid);
+		}
+		staleCount.incrementAndGet();
+	}
+
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * @return number of lookups which found the document, including those later found stale
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * @return number of lookups which did not find the document
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * @return number of documents dropped to stay within the size limit
+	 */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	/**
+	 * @return number of documents dropped after their time to live
+	 */
+	public long getExpirationCount() {
+		return expirationCount.get();
+	}
+
+	/**
+	 * @return number of hits dropped because the record version in the database was different
+	 */
+	public long getStaleCount() {
+		return staleCount.get();
+	}
+
+	/**
+	 * @return number of documents dropped because they were written
+	 */
+	public long getInvalidationCount() {
+		return invalidationCount.get();
+	}
+
+	public double getHitRatio() {
+		long hits = hitCount.get() - staleCount.get();
+		long lookups = hitCount.get() + missCount.get();
+		return lookups == 0 ? 0.0 : (double) hits / lookups;
+	}
+
+	private static class Entry {
+
+		private final byte[] content;
+		private final ORecordVersion version;
+		private final long expiresAt;
+
+		Entry(byte[] content, ORecordVersion version, long expiresAt) {
+			this.content = content;
+			this.version = version;
+			this.expiresAt = expiresAt;
+		}
+
+		boolean isExpired(long now) {
+			return expiresAt != 0 && now >= expiresAt;
+		}
+
+		ODocument toDocument(ORID rid) {
+			ODocument oDoc = new ODocument();
+			oDoc.fill(rid, version.copy(), content, false);
+			return oDoc;
+		}
+	}
+
+}
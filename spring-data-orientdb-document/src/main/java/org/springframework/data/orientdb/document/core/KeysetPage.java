@@ -0,0 +1,108 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.document.core;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.serialization.OBase64Utils;
+
+/**
+ * Page of entities returned by {@link OrientDocumentOperations#findPage(Class, String, int)}. Instead of a page
+ * number it carries an opaque continuation token pointing right behind the last entity of the page, the next page is
+ * read from there on without skipping over the previous ones. The token is URL safe and holds no server side state,
+ * so it can be handed over to clients and passed back with another request.
+ *
+ * @author Matej Zachar
+ *
+ */
+public class KeysetPage<T> {
+
+	private static final String CHARSET = "UTF-8";
+	private static final char SEPARATOR = '|';
+
+	private final List<T> content;
+	private final String continuationToken;
+
+	KeysetPage(List<T> content, String continuationToken) {
+		this.content = Collections.unmodifiableList(content);
+		this.continuationToken = continuationToken;
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	/**
+	 * @return token of the next page, <code>null</code> if this is the last page
+	 */
+	public String getContinuationToken() {
+		return continuationToken;
+	}
+
+	public boolean hasNext() {
+		return continuationToken != null;
+	}
+
+	@Override
+	public String toString() {
+		return "KeysetPage [size=" + content.size() + ", continuationToken=" + continuationToken + "]";
+	}
+
+	static String encodeToken(String collectionName, ORID lastRecord) {
+		try {
+			byte[] token = (collectionName + SEPARATOR + lastRecord.toString()).getBytes(CHARSET);
+			return OBase64Utils.encodeBytes(token, OBase64Utils.URL_SAFE);
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not encode continuation token", e);
+		}
+	}
+
+	/**
+	 * @return record id the token points behind
+	 * @throws InvalidDataAccessApiUsageException
+	 *             if the token is malformed or was issued for another collection
+	 */
+	static ORID decodeToken(String token, String collectionName) {
+		String decoded;
+		try {
+			decoded = new String(OBase64Utils.decode(token, OBase64Utils.URL_SAFE), CHARSET);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		} catch (RuntimeException e) {
+			throw new InvalidDataAccessApiUsageException("Malformed continuation token " + token, e);
+		}
+
+		int separator = decoded.lastIndexOf(SEPARATOR);
+		if (separator < 0 || !collectionName.equals(decoded.substring(0, separator))) {
+			throw new InvalidDataAccessApiUsageException("Continuation token " + token
+					+ " does not belong to collection " + collectionName);
+		}
+		try {
+			return new ORecordId(decoded.substring(separator + 1));
+		} catch (RuntimeException e) {
+			throw new InvalidDataAccessApiUsageException("Malformed continuation token " + token, e);
+		}
+	}
+
+}
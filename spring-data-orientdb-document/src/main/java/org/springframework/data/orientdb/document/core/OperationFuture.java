@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+/**
+ * Result of an operation of {@link AsyncOrientDocumentOperations}. Besides blocking on {@link #get()}, callers can
+ * register {@link OperationCallback callbacks}, which run on the worker thread completing the operation, or right
+ * away on the registering thread when it has completed already.
+ * 
+ * @author Matej Zachar
+ */
+public class OperationFuture<T> extends FutureTask<T> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(OperationFuture.class);
+
+	private List<OperationCallback<? super T>> callbacks = new ArrayList<OperationCallback<? super T>>();
+
+	OperationFuture(Callable<T> operation) {
+		super(operation);
+	}
+
+	/**
+	 * @param callback
+	 *            notified once the operation completed, cancelled operations
+	 *            report a {@link java.util.concurrent.CancellationException}
+	 */
+	public void addCallback(OperationCallback<? super T> callback) {
+		Assert.notNull(callback, "Callback must not be null");
+		synchronized (this) {
+			if (callbacks != null) {
+				callbacks.add(callback);
+				return;
+			}
+		}
+		notify(callback);
+	}
+
+	@Override
+	protected void done() {
+		List<OperationCallback<? super T>> completed;
+		synchronized (this) {
+			completed = callbacks;
+			callbacks = null;
+		}
+		for (OperationCallback<? super T> callback : completed) {
+			notify(callback);
+		}
+	}
+
+	private void notify(OperationCallback<? super T> callback) {
+		T result;
+		try {
+			result = get();
+		} catch (ExecutionException e) {
+			notifyFailure(callback, e.getCause());
+			return;
+		} catch (Throwable e) {
+			notifyFailure(callback, e);
+			return;
+		}
+		try {
+			callback.onSuccess(result);
+		} catch (RuntimeException e) {
+			LOG.warn("Operation callback failed", e);
+		}
+	}
+
+	private void notifyFailure(OperationCallback<? super T> callback, Throwable failure) {
+		try {
+			callback.onFailure(failure);
+		} catch (RuntimeException e) {
+			LOG.warn("Operation callback failed", e);
+		}
+	}
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.document.core;
+
+import org.springframework.data.authentication.UserCredentials;
+import org.springframework.data.orientdb.CannotGetOriendDbConnectionException;
+import org.springframework.data.orientdb.core.AbstractOrientDatabaseFactory;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+
+/**
+ * Factory of {@link ODatabaseDocumentTx document databases}. Opens a new database on every call unless a
+ * {@link org.springframework.data.orientdb.core.pool.OrientDatabasePool pool} is set.
+ * 
+ * @author Matej Zachar
+ * 
+ */
+public class OrientDocumentDatabaseFactory extends AbstractOrientDatabaseFactory<ODatabaseDocumentTx> {
+
+	public OrientDocumentDatabaseFactory(String uri, UserCredentials credentials) {
+		super(uri, credentials);
+	}
+
+	public OrientDocumentDatabaseFactory(String uri, String user, String password) {
+		super(uri, user, password);
+	}
+
+	@Override
+	protected ODatabaseDocumentTx doGetDatabase(String uri, UserCredentials credentials) {
+		ODatabaseDocumentTx db = new ODatabaseDocumentTx(uri);
+		try {
+			db.open(credentials.getUsername(), credentials.getPassword());
+		} catch (OException e) {
+			throw new CannotGetOriendDbConnectionException("Could not open database", e, uri, credentials);
+		}
+		return db;
+	}
+
+}
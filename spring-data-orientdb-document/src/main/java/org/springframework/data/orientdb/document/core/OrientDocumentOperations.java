@@ -45,13 +45,128 @@ public interface OrientDocumentOperations {
 	
 	<T> List<T> findAll(Class<T> entityClass);
 	
+	/**
+	 * Read all entities of the class using the given OrientDB fetch plan. Records reached by the plan are loaded in the
+	 * same round trip and links to them are resolved without further loads. Methods without a fetch plan use the one
+	 * declared by {@link org.springframework.data.orientdb.document.core.mapping.FetchPlan} on the entity.
+	 * 
+	 * @param entityClass class of the entities to read
+	 * @param fetchPlan fetch plan such as <code>"animals:1"</code>, <code>null</code> for the one of the entity
+	 * @return all entities of the class
+	 */
+	<T> List<T> findAll(Class<T> entityClass, String fetchPlan);
+	
+	/**
+	 * Read all documents of the entity class as projections. Only the document fields backing properties of the
+	 * projection class are selected and mapped, the id property of the projection receives the record id. Projections
+	 * are plain values, they are not tracked by the identity map nor saved back.
+	 * 
+	 * @param entityClass class of the entities to read
+	 * @param projectionClass class with a no-arg constructor declaring a subset of the entity properties
+	 * @return projections of all documents of the class
+	 */
+	<T, P> List<P> findAll(Class<T> entityClass, Class<P> projectionClass);
+	
+	/**
+	 * Lazily iterate over all documents of the entity class, using the default prefetch size of the template.
+	 * 
+	 * @see #stream(Class, int)
+	 */
+	<T> CloseableIterator<T> stream(Class<T> entityClass);
+	
+	/**
+	 * Lazily iterate over all documents of the entity class. Documents are read and converted
+	 * <code>prefetchSize</code> at a time, so memory stays bounded regardless of the class size. Outside of a
+	 * transaction the iterator holds its own database which is released once it is closed or fully consumed, within
+	 * a transaction it reads on the database of the transaction and sees its uncommitted changes.
+	 * 
+	 * @param entityClass class of the entities to read
+	 * @param prefetchSize number of documents read ahead from the database
+	 * @return iterator which has to be closed when not consumed till the end
+	 */
+	<T> CloseableIterator<T> stream(Class<T> entityClass, int prefetchSize);
+	
+	/**
+	 * Read all entities of the class using several threads. The class is split by cluster and large clusters further
+	 * by position ranges, every split is read and converted by a worker on its own database. As the workers do not
+	 * share the current database, changes not committed yet are not visible to them.
+	 * 
+	 * @param entityClass class of the entities to read
+	 * @param ordered <code>true</code> to return entities in record id order, <code>false</code> to append splits as
+	 *            they complete
+	 * @return all entities of the class
+	 */
+	<T> List<T> findAllParallel(Class<T> entityClass, boolean ordered);
+	
+	/**
+	 * Read the first page of entities in record id order.
+	 * 
+	 * @see #findPage(Class, String, int)
+	 */
+	<T> KeysetPage<T> findPage(Class<T> entityClass, int pageSize);
+	
+	/**
+	 * Read a page of entities in record id order, starting right behind the record the continuation token points
+	 * to. Clusters of the class are range scanned from that record on, so every page costs the same regardless of
+	 * how deep into the class it is. Records inserted behind the cursor in the meantime show up on later pages.
+	 * 
+	 * @param entityClass class of the entities to read
+	 * @param continuationToken token of a previous page, <code>null</code> to start from the beginning
+	 * @param pageSize maximal number of entities on the page
+	 * @return page holding the token of the next page, if there is any
+	 */
+	<T> KeysetPage<T> findPage(Class<T> entityClass, String continuationToken, int pageSize);
+	
+	/**
+	 * Read the entities selected by an OrientDB SQL query, converting all documents of the result together so that
+	 * their links are loaded at once.
+	 * 
+	 * @param sql query selecting whole documents of the entity class, with <code>?</code> placeholders
+	 * @param entityClass class of the entities to read
+	 * @param fetchPlan fetch plan of the query, <code>null</code> for the one of the entity
+	 * @param parameters values of the placeholders in order
+	 * @return entities in the order of the query result, empty when the class does not exist yet
+	 */
+	<T> List<T> find(String sql, Class<T> entityClass, String fetchPlan, Object... parameters);
+	
+	/**
+	 * @return number of stored entities of the class
+	 */
+	long count(Class<?> entityClass);
+	
 	<T> T findById(Object id, Class<T> entityClass);
 	
+	/**
+	 * Read an entity using the given OrientDB fetch plan.
+	 * 
+	 * @see #findAll(Class, String)
+	 */
+	<T> T findById(Object id, Class<T> entityClass, String fetchPlan);
+	
 	void insert(Object objectToSave);
 	
 	void insert(Object objectToSave, String collectionName);
 	
-	void insertAll(Collection<? extends Object> objectsToSave);
+	/**
+	 * Insert all objects using the default batch size of the template.
+	 * 
+	 * @see #insertAll(Iterable, int)
+	 */
+	BatchInsertResult insertAll(Collection<? extends Object> objectsToSave);
+	
+	/**
+	 * Insert objects in chunks of <code>batchSize</code> documents, each chunk being committed in its own OrientDB
+	 * transaction. Objects are pulled from the given {@link Iterable} lazily so only a single chunk is held in memory
+	 * at a time. A failing chunk is rolled back and reported in the result, remaining chunks are still written.
+	 * <p>
+	 * When called within an already active OrientDB transaction the documents are just saved into it and the
+	 * surrounding transaction decides about commit.
+	 * 
+	 * @param objectsToSave objects to insert, may be a lazily evaluated source
+	 * @param batchSize number of documents per transaction
+	 * @return timing and failure information for every chunk
+	 */
+	BatchInsertResult insertAll(Iterable<? extends Object> objectsToSave, int batchSize);
 	
 	/**
 	 * Save the object to the collection for the entity type of the object to save. This will perform an insert if the
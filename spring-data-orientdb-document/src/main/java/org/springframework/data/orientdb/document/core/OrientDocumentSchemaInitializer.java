@@ -0,0 +1,427 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.core;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mapping.model.MappingException;
+import org.springframework.data.orientdb.document.core.SchemaReport.IndexBuild;
+import org.springframework.data.orientdb.document.core.mapping.CompoundIndex;
+import org.springframework.data.orientdb.document.core.mapping.CompoundIndexes;
+import org.springframework.data.orientdb.document.core.mapping.Document;
+import org.springframework.data.orientdb.document.core.mapping.Indexed;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentMappingUtils;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentEntity;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.ODatabaseRecord;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OSchema;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+
+/**
+ * Creates the OrientDB schema of all {@link Document} entities known to the mapping context: a class per entity with
+ * typed properties for the stored fields, and the indexes declared by {@link Indexed} and {@link CompoundIndex}.
+ * Classes, properties and indexes which exist already are left untouched, so it is safe to run on every startup.
+ * <p>
+ * Typed properties let OrientDB serialize documents without guessing field types, indexes let queries avoid full
+ * scans. Fields of types without a clear OrientDB counterpart stay schemaless. Missing indexes are built in parallel,
+ * each on its own database, and the {@link SchemaReport} lists how long each build took.
+ * 
+ * <pre>
+ * &lt;bean class="org.springframework.data.orientdb.document.core.OrientDocumentSchemaInitializer"&gt;
+ * 	&lt;constructor-arg ref="orientDbManager" /&gt;
+ * 	&lt;constructor-arg ref="mappingContext" /&gt;
+ * 	&lt;property name="entityClasses"&gt;
+ * 		&lt;list&gt;
+ * 			&lt;value&gt;com.example.Animal&lt;/value&gt;
+ * 		&lt;/list&gt;
+ * 	&lt;/property&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ *
+ * @author Matej Zachar
+ *
+ */
+public class OrientDocumentSchemaInitializer implements InitializingBean {
+
+	private static final Logger LOG = LoggerFactory.getLogger(OrientDocumentSchemaInitializer.class);
+	private static final Map<Class<?>, OType> SIMPLE_TYPES = new HashMap<Class<?>, OType>();
+
+	static {
+		// explicit, OType.getTypeByClass maps some classes surprisingly (e.g. Date to DATE without time)
+		SIMPLE_TYPES.put(String.class, OType.STRING);
+		SIMPLE_TYPES.put(Boolean.class, OType.BOOLEAN);
+		SIMPLE_TYPES.put(Boolean.TYPE, OType.BOOLEAN);
+		SIMPLE_TYPES.put(Byte.class, OType.BYTE);
+		SIMPLE_TYPES.put(Byte.TYPE, OType.BYTE);
+		SIMPLE_TYPES.put(Short.class, OType.SHORT);
+		SIMPLE_TYPES.put(Short.TYPE, OType.SHORT);
+		SIMPLE_TYPES.put(Integer.class, OType.INTEGER);
+		SIMPLE_TYPES.put(Integer.TYPE, OType.INTEGER);
+		SIMPLE_TYPES.put(Long.class, OType.LONG);
+		SIMPLE_TYPES.put(Long.TYPE, OType.LONG);
+		SIMPLE_TYPES.put(Float.class, OType.FLOAT);
+		SIMPLE_TYPES.put(Float.TYPE, OType.FLOAT);
+		SIMPLE_TYPES.put(Double.class, OType.DOUBLE);
+		SIMPLE_TYPES.put(Double.TYPE, OType.DOUBLE);
+		SIMPLE_TYPES.put(BigDecimal.class, OType.DECIMAL);
+		SIMPLE_TYPES.put(Date.class, OType.DATETIME);
+		SIMPLE_TYPES.put(byte[].class, OType.BINARY);
+	}
+
+	private final OrientDocumentDbManager dbManager;
+	private final MappingContext<? extends OrientDocumentPersistentEntity<?>, OrientDocumentPersistentProperty> mappingContext;
+	private Collection<Class<?>> entityClasses = Collections.emptySet();
+	private ExecutorService indexExecutor;
+	private int indexParallelism = Runtime.getRuntime().availableProcessors();
+
+	public OrientDocumentSchemaInitializer(OrientDocumentDbManager dbManager,
+			MappingContext<? extends OrientDocumentPersistentEntity<?>, OrientDocumentPersistentProperty> mappingContext) {
+		Assert.notNull(dbManager, "Database manager must not be null");
+		Assert.notNull(mappingContext, "Mapping context must not be null");
+		this.dbManager = dbManager;
+		this.mappingContext = mappingContext;
+	}
+
+	/**
+	 * @param entityClasses
+	 *            entities registered with the mapping context before the
+	 *            schema is created, in addition to the ones it knows already
+	 */
+	public void setEntityClasses(Collection<Class<?>> entityClasses) {
+		Assert.notNull(entityClasses, "Entity classes must not be null");
+		this.entityClasses = entityClasses;
+	}
+
+	/**
+	 * @param indexExecutor
+	 *            executor running the index builds, when not set every
+	 *            initialization uses its own pool of
+	 *            {@link #setIndexParallelism indexParallelism} threads
+	 */
+	public void setIndexExecutor(ExecutorService indexExecutor) {
+		this.indexExecutor = indexExecutor;
+	}
+
+	/**
+	 * @param indexParallelism
+	 *            number of indexes built at the same time without
+	 *            {@link #setIndexExecutor indexExecutor}, defaults to the
+	 *            number of processors
+	 */
+	public void setIndexParallelism(int indexParallelism) {
+		Assert.isTrue(indexParallelism > 0, "Index parallelism has to be a positive number");
+		this.indexParallelism = indexParallelism;
+	}
+
+	public void afterPropertiesSet() {
+		SchemaReport report = initialize();
+		if (report.hasFailures()) {
+			IndexBuild failed = report.getFailedIndexBuilds().get(0);
+			throw new InvalidDataAccessResourceUsageException("Could not build index " + failed.getName() + " ("
+					+ report.getFailedIndexBuilds().size() + " index builds failed)", failed.getFailure());
+		}
+	}
+
+	/**
+	 * Create the missing classes, properties and indexes.
+	 * 
+	 * @return what was created, with the time each index build took
+	 */
+	public SchemaReport initialize() {
+		for (Class<?> entityClass : entityClasses) {
+			mappingContext.getPersistentEntity(entityClass);
+		}
+
+		long start = System.currentTimeMillis();
+		SchemaReport report = new SchemaReport();
+		List<IndexDefinition> indexes;
+
+		// acquiring binds the new database already
+		ODatabaseRecord previous = ODatabaseRecordThreadLocal.INSTANCE.getIfDefined();
+		ODatabaseDocumentTx db = dbManager.getUnboundDatabase();
+		try {
+			ODatabaseRecordThreadLocal.INSTANCE.set(db);
+			indexes = createClasses(db.getMetadata().getSchema(), report);
+		} finally {
+			dbManager.releaseDatabase(db);
+			restoreBinding(previous);
+		}
+
+		for (IndexBuild indexBuild : buildIndexes(indexes)) {
+			report.addIndexBuild(indexBuild);
+			if (indexBuild.isFailed()) {
+				LOG.warn("Building index {} failed", indexBuild.getName(), indexBuild.getFailure());
+			} else if (!indexBuild.isExisting()) {
+				LOG.info("Built index {} on {}{} in {}ms", new Object[] { indexBuild.getName(), indexBuild.getClassName(),
+						indexBuild.getFields(), indexBuild.getElapsedMillis() });
+			}
+		}
+		report.setElapsedMillis(System.currentTimeMillis() - start);
+
+		LOG.info("Initialized OrientDB schema: {}", report);
+		return report;
+	}
+
+	/**
+	 * Create the classes first, so that links between them can be typed with the linked class.
+	 * 
+	 * @return indexes declared by the entities
+	 */
+	private List<IndexDefinition> createClasses(OSchema schema, SchemaReport report) {
+		List<OrientDocumentPersistentEntity<?>> entities = new ArrayList<OrientDocumentPersistentEntity<?>>();
+		for (OrientDocumentPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+			if (AnnotationUtils.findAnnotation(entity.getType(), Document.class) == null) {
+				continue;
+			}
+			entities.add(entity);
+			String className = entity.getCollection();
+			if (!schema.existsClass(className)) {
+				schema.createClass(className);
+				report.addCreatedClass(className);
+			}
+		}
+
+		List<IndexDefinition> indexes = new ArrayList<IndexDefinition>();
+		for (OrientDocumentPersistentEntity<?> entity : entities) {
+			OClass oClass = schema.getClass(entity.getCollection());
+			createProperties(schema, oClass, entity, report);
+			collectIndexes(oClass, entity, indexes);
+		}
+		return indexes;
+	}
+
+	private void createProperties(final OSchema schema, final OClass oClass,
+			final OrientDocumentPersistentEntity<?> entity, final SchemaReport report) {
+		final OrientDocumentPersistentProperty idProperty = entity.getIdProperty();
+
+		OrientDocumentMappingUtils.doWithStoredProperties(entity, new PropertyHandler<OrientDocumentPersistentProperty>() {
+			public void doWithPersistentProperty(OrientDocumentPersistentProperty prop) {
+				if (prop.equals(idProperty) || oClass.existsProperty(prop.getFieldName())) {
+					return;
+				}
+
+				if (prop.isLink()) {
+					Class<?> targetType = prop.isCollectionLike() ? prop.getComponentType() : prop.getType();
+					OClass linkedClass = schema.getClass(mappingContext.getPersistentEntity(targetType).getCollection());
+					OType type = !prop.isCollectionLike() ? OType.LINK
+							: Set.class.isAssignableFrom(prop.getType()) ? OType.LINKSET : OType.LINKLIST;
+					oClass.createProperty(prop.getFieldName(), type, linkedClass);
+
+				} else if (prop.isCollectionLike() && !prop.isArray()) {
+					OType linkedType = SIMPLE_TYPES.get(prop.getComponentType());
+					if (linkedType == null) {
+						return;
+					}
+					OType type = Set.class.isAssignableFrom(prop.getType()) ? OType.EMBEDDEDSET : OType.EMBEDDEDLIST;
+					oClass.createProperty(prop.getFieldName(), type, linkedType);
+
+				} else {
+					OType type = SIMPLE_TYPES.get(prop.getType());
+					if (type == null) {
+						return;
+					}
+					oClass.createProperty(prop.getFieldName(), type);
+				}
+				report.incrementCreatedPropertyCount();
+			}
+		});
+	}
+
+	private void collectIndexes(final OClass oClass, final OrientDocumentPersistentEntity<?> entity,
+			final List<IndexDefinition> indexes) {
+		OrientDocumentMappingUtils.doWithStoredProperties(entity, new PropertyHandler<OrientDocumentPersistentProperty>() {
+			public void doWithPersistentProperty(OrientDocumentPersistentProperty prop) {
+				Indexed indexed = prop.getField().getAnnotation(Indexed.class);
+				if (indexed != null) {
+					String name = StringUtils.hasText(indexed.name()) ? indexed.name() : oClass.getName() + "."
+							+ prop.getFieldName();
+					indexes.add(createIndexDefinition(oClass, name, indexed.unique(), prop));
+				}
+			}
+		});
+
+		List<CompoundIndex> compoundIndexes = new ArrayList<CompoundIndex>();
+		CompoundIndex compoundIndex = AnnotationUtils.findAnnotation(entity.getType(), CompoundIndex.class);
+		if (compoundIndex != null) {
+			compoundIndexes.add(compoundIndex);
+		}
+		CompoundIndexes container = AnnotationUtils.findAnnotation(entity.getType(), CompoundIndexes.class);
+		if (container != null) {
+			compoundIndexes.addAll(Arrays.asList(container.value()));
+		}
+
+		for (CompoundIndex index : compoundIndexes) {
+			OrientDocumentPersistentProperty[] props = new OrientDocumentPersistentProperty[index.properties().length];
+			for (int i = 0; i < props.length; i++) {
+				props[i] = entity.getPersistentProperty(index.properties()[i]);
+				if (props[i] == null) {
+					throw new MappingException("Compound index of " + entity.getType().getName()
+							+ " refers to unknown property " + index.properties()[i]);
+				}
+			}
+			String name = StringUtils.hasText(index.name()) ? index.name() : oClass.getName() + "."
+					+ StringUtils.arrayToDelimitedString(index.properties(), "_");
+			indexes.add(createIndexDefinition(oClass, name, index.unique(), props));
+		}
+	}
+
+	private IndexDefinition createIndexDefinition(OClass oClass, String name, boolean unique,
+			OrientDocumentPersistentProperty... props) {
+		String[] fields = new String[props.length];
+		for (int i = 0; i < props.length; i++) {
+			fields[i] = props[i].getFieldName();
+			// OrientDB indexes only properties declared in the schema
+			if (!oClass.existsProperty(fields[i])) {
+				throw new MappingException("Can not index " + props[i].getOwner().getType().getName() + "."
+						+ props[i].getName() + ", its type has no OrientDB property type");
+			}
+		}
+		return new IndexDefinition(name, oClass.getName(), fields, unique, oClass.getClassIndex(name) != null);
+	}
+
+	private List<IndexBuild> buildIndexes(List<IndexDefinition> indexes) {
+		List<IndexBuild> result = new ArrayList<IndexBuild>(indexes.size());
+		List<IndexDefinition> missing = new ArrayList<IndexDefinition>();
+		for (IndexDefinition index : indexes) {
+			if (!index.existing) {
+				missing.add(index);
+			}
+		}
+		if (missing.isEmpty()) {
+			for (IndexDefinition index : indexes) {
+				result.add(index.toBuild(0, null));
+			}
+			return result;
+		}
+
+		ExecutorService executor = indexExecutor;
+		boolean ownExecutor = executor == null;
+		if (ownExecutor) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("orientdb-index-");
+			threadFactory.setDaemon(true);
+			executor = Executors.newFixedThreadPool(Math.min(indexParallelism, missing.size()), threadFactory);
+		}
+
+		Map<IndexDefinition, Future<IndexBuild>> futures = new HashMap<IndexDefinition, Future<IndexBuild>>();
+		try {
+			for (IndexDefinition index : missing) {
+				futures.put(index, executor.submit(index));
+			}
+
+			for (IndexDefinition index : indexes) {
+				result.add(index.existing ? index.toBuild(0, null) : futures.get(index).get());
+			}
+			return result;
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InvalidDataAccessResourceUsageException("Interrupted while building indexes", e);
+
+		} catch (ExecutionException e) {
+			// index builds report their own failures, anything else is unexpected
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new InvalidDataAccessResourceUsageException("Building indexes failed", e.getCause());
+
+		} finally {
+			if (ownExecutor) {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * The released database may be handed to other threads, do not leave it bound.
+	 */
+	private static void restoreBinding(ODatabaseRecord previous) {
+		if (previous != null) {
+			ODatabaseRecordThreadLocal.INSTANCE.set(previous);
+		} else {
+			ODatabaseRecordThreadLocal.INSTANCE.remove();
+		}
+	}
+
+	/**
+	 * Index declared by an entity, builds itself on its own database when called.
+	 */
+	private class IndexDefinition implements Callable<IndexBuild> {
+
+		private final String name;
+		private final String className;
+		private final String[] fields;
+		private final boolean unique;
+		private final boolean existing;
+
+		IndexDefinition(String name, String className, String[] fields, boolean unique, boolean existing) {
+			this.name = name;
+			this.className = className;
+			this.fields = fields;
+			this.unique = unique;
+			this.existing = existing;
+		}
+
+		public IndexBuild call() {
+			long start = System.currentTimeMillis();
+			ODatabaseRecord previous = ODatabaseRecordThreadLocal.INSTANCE.getIfDefined();
+			ODatabaseDocumentTx db = dbManager.getUnboundDatabase();
+			try {
+				ODatabaseRecordThreadLocal.INSTANCE.set(db);
+				db.getMetadata().getSchema().getClass(className)
+						.createIndex(name, unique ? OClass.INDEX_TYPE.UNIQUE : OClass.INDEX_TYPE.NOTUNIQUE, fields);
+				return toBuild(System.currentTimeMillis() - start, null);
+			} catch (RuntimeException e) {
+				return toBuild(System.currentTimeMillis() - start, e);
+			} finally {
+				dbManager.releaseDatabase(db);
+				restoreBinding(previous);
+			}
+		}
+
+		IndexBuild toBuild(long elapsedMillis, Throwable failure) {
+			return new IndexBuild(name, className, Arrays.asList(fields), unique, existing, elapsedMillis, failure);
+		}
+	}
+
+}
@@ -16,17 +16,58 @@
 
 package org.springframework.data.orientdb.document.core;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataRetrievalFailureException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mapping.PropertyHandler;
 import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.orientdb.core.OrientDatabaseUtils;
 import org.springframework.data.orientdb.document.core.convert.OrientDocumentConverter;
 import org.springframework.data.orientdb.document.core.mapping.OrientDocumentMappingUtils;
 import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentEntity;
 import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentProperty;
+import org.springframework.data.orientdb.transaction.ODatabaseHolder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
 
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.ODatabaseRecord;
+import com.orientechnologies.orient.core.exception.ODatabaseException;
+import com.orientechnologies.orient.core.exception.ORecordNotFoundException;
+import com.orientechnologies.orient.core.id.OClusterPosition;
+import com.orientechnologies.orient.core.id.OClusterPositionFactory;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.iterator.ORecordIteratorClass;
+import com.orientechnologies.orient.core.iterator.ORecordIteratorCluster;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
 
 /**
  * 
@@ -36,9 +77,33 @@ import com.orientechnologies.orient.core.record.impl.ODocument;
 
 public class OrientDocumentTemplate implements OrientDocumentOperations {
 
+	private static final Logger LOG = LoggerFactory.getLogger(OrientDocumentTemplate.class);
+
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+	
+	public static final int DEFAULT_PREFETCH_SIZE = 100;
+	
+	public static final int DEFAULT_SNAPSHOT_LIMIT = 10000;
+	
+	public static final long DEFAULT_SCAN_SPLIT_SIZE = 50000;
+	
+	private static final String VERSION_FIELD_NAME = "_version";
+	
+	private static final Pattern RECORD_ID_PATTERN = Pattern.compile("#?-?\\d+:-?\\d+");
+
 	private OrientDocumentConverter converter;
 	private OrientDocumentDbManager dbManager;
 	private final MappingContext<? extends OrientDocumentPersistentEntity<?>, OrientDocumentPersistentProperty> mappingContext;
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private int prefetchSize = DEFAULT_PREFETCH_SIZE;
+	private boolean dirtyChecking = false;
+	private int snapshotLimit = DEFAULT_SNAPSHOT_LIMIT;
+	private ExecutorService scanExecutor;
+	private int scanParallelism = Runtime.getRuntime().availableProcessors();
+	private long scanSplitSize = DEFAULT_SCAN_SPLIT_SIZE;
+	private EntityCache entityCache;
+	private boolean cacheVersionCheck = false;
+	private final ConcurrentMap<Class<?>, Set<String>> mappedFieldNames = new ConcurrentHashMap<Class<?>, Set<String>>();
 	
 	public OrientDocumentTemplate(OrientDocumentDbManager dbManager, OrientDocumentConverter converter) {
 		this.converter = converter;
@@ -50,6 +115,120 @@ public class OrientDocumentTemplate implements OrientDocumentOperations {
 		this (dbFactory, null);
 	}
 	
+	/**
+	 * @param batchSize
+	 *            number of documents committed in one transaction by {@link #insertAll(Collection)}
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "Batch size has to be a positive number");
+		this.batchSize = batchSize;
+	}
+	
+	public int getBatchSize() {
+		return batchSize;
+	}
+	
+	/**
+	 * @param prefetchSize
+	 *            number of documents read ahead by {@link #stream(Class)}
+	 */
+	public void setPrefetchSize(int prefetchSize) {
+		Assert.isTrue(prefetchSize > 0, "Prefetch size has to be a positive number");
+		this.prefetchSize = prefetchSize;
+	}
+	
+	public int getPrefetchSize() {
+		return prefetchSize;
+	}
+	
+	/**
+	 * In dirty checking mode {@link #save(Object)} of an entity which was
+	 * loaded by its record id updates the existing record, setting only the
+	 * fields which changed since the entity was loaded within the current
+	 * transaction, or nothing at all if none did.
+	 * 
+	 * @param dirtyChecking
+	 *            whether to update loaded entities instead of inserting them
+	 *            as new documents
+	 */
+	public void setDirtyChecking(boolean dirtyChecking) {
+		this.dirtyChecking = dirtyChecking;
+	}
+	
+	public boolean isDirtyChecking() {
+		return dirtyChecking;
+	}
+	
+	/**
+	 * @param snapshotLimit
+	 *            maximal number of loaded documents remembered per
+	 *            transaction for dirty checking, least recently used are
+	 *            forgotten first
+	 */
+	public void setSnapshotLimit(int snapshotLimit) {
+		Assert.isTrue(snapshotLimit > 0, "Snapshot limit has to be a positive number");
+		this.snapshotLimit = snapshotLimit;
+	}
+	
+	public int getSnapshotLimit() {
+		return snapshotLimit;
+	}
+	
+	/**
+	 * @param scanExecutor
+	 *            executor running the splits of {@link #findAllParallel}, when
+	 *            not set every scan uses its own pool of
+	 *            {@link #setScanParallelism scanParallelism} threads
+	 */
+	public void setScanExecutor(ExecutorService scanExecutor) {
+		this.scanExecutor = scanExecutor;
+	}
+	
+	/**
+	 * @param scanParallelism
+	 *            number of threads of a parallel scan without
+	 *            {@link #setScanExecutor scanExecutor}, defaults to the number
+	 *            of processors
+	 */
+	public void setScanParallelism(int scanParallelism) {
+		Assert.isTrue(scanParallelism > 0, "Scan parallelism has to be a positive number");
+		this.scanParallelism = scanParallelism;
+	}
+	
+	/**
+	 * @param scanSplitSize
+	 *            number of cluster positions read by a single worker of
+	 *            {@link #findAllParallel}
+	 */
+	public void setScanSplitSize(long scanSplitSize) {
+		Assert.isTrue(scanSplitSize > 0, "Scan split size has to be a positive number");
+		this.scanSplitSize = scanSplitSize;
+	}
+	
+	/**
+	 * @param entityCache
+	 *            second level cache consulted by {@link #findById} for
+	 *            cacheable entities, may be shared by several templates,
+	 *            <code>null</code> disables caching
+	 */
+	public void setEntityCache(EntityCache entityCache) {
+		this.entityCache = entityCache;
+	}
+	
+	public EntityCache getEntityCache() {
+		return entityCache;
+	}
+	
+	/**
+	 * @param cacheVersionCheck
+	 *            whether every cache hit is verified against the version of
+	 *            the stored record, which catches changes made by other
+	 *            applications at the price of a version lookup
+	 */
+	public void setCacheVersionCheck(boolean cacheVersionCheck) {
+		this.cacheVersionCheck = cacheVersionCheck;
+	}
+	
 	public String getCollectionName(Class<?> entityClass) {
 		// TODO Auto-generated method stub
 		return null;
@@ -76,12 +255,393 @@ public class OrientDocumentTemplate implements OrientDocumentOperations {
 	}
 
 	public <T> List<T> findAll(Class<T> entityClass) {
-		// TODO Auto-generated method stub
-		return null;
+		return findAll(entityClass, (String) null);
+	}
+
+	public <T> List<T> findAll(Class<T> entityClass, String fetchPlan) {
+		List<T> result = new ArrayList<T>();
+		CloseableIterator<T> iterator = stream(entityClass, prefetchSize, resolveFetchPlan(entityClass, fetchPlan),
+				true);
+		try {
+			while (iterator.hasNext()) {
+				result.add(iterator.next());
+			}
+		} finally {
+			iterator.close();
+		}
+		return result;
 	}
 
+	public <T, P> List<P> findAll(Class<T> entityClass, Class<P> projectionClass) {
+		Assert.notNull(entityClass, "Entity class must not be null");
+		Assert.notNull(projectionClass, "Projection class must not be null");
+
+		ODatabaseDocumentTx db = dbManager.getCurrentDatabase();
+		String collectionName = determineCollectionName(entityClass);
+		if (!db.getMetadata().getSchema().existsClass(collectionName)) {
+			return new ArrayList<P>();
+		}
+
+		String fields = StringUtils.arrayToCommaDelimitedString(converter.getProjectedFields(entityClass,
+				projectionClass));
+		List<ODocument> documents = db.query(new OSQLSynchQuery<ODocument>("select " + fields + " from "
+				+ collectionName));
+
+		List<P> result = new ArrayList<P>(documents.size());
+		for (ODocument oDoc : documents) {
+			result.add(converter.readProjection(entityClass, projectionClass, oDoc));
+		}
+		return result;
+	}
+
+	public <T> CloseableIterator<T> stream(Class<T> entityClass) {
+		return stream(entityClass, prefetchSize);
+	}
+
+	public <T> CloseableIterator<T> stream(Class<T> entityClass, int prefetchSize) {
+		// within a transaction read its own writes
+		return stream(entityClass, prefetchSize, resolveFetchPlan(entityClass, null),
+				TransactionSynchronizationManager.isActualTransactionActive());
+	}
+
+	/**
+	 * @param current
+	 *            whether to read on the current database, left open for
+	 *            its owner, rather than on an own database released once
+	 *            the stream is closed
+	 */
+	private <T> CloseableIterator<T> stream(Class<T> entityClass, int prefetchSize, String fetchPlan, boolean current) {
+		Assert.isTrue(prefetchSize > 0, "Prefetch size has to be a positive number");
+		String collectionName = determineCollectionName(entityClass);
+
+		// acquiring binds the database, the iterator binds it again per chunk
+		ODatabaseRecord previous = ODatabaseRecordThreadLocal.INSTANCE.getIfDefined();
+		ODatabaseDocumentTx db = current ? dbManager.getCurrentDatabase() : dbManager.getUnboundDatabase();
+		try {
+			Iterator<ODocument> source;
+			if (db.getMetadata().getSchema().existsClass(collectionName)) {
+				ORecordIteratorClass<ODocument> iterator = db.browseClass(collectionName);
+				iterator.setFetchPlan(fetchPlan);
+				source = iterator;
+			} else {
+				source = Collections.<ODocument> emptyList().iterator();
+			}
+			return new DocumentStreamIterator<T>(db, dbManager, source, converter, entityClass, prefetchSize, current);
+		} catch (RuntimeException e) {
+			if (!current) {
+				dbManager.releaseDatabase(db);
+			}
+			throw e;
+		} finally {
+			if (previous != null) {
+				ODatabaseRecordThreadLocal.INSTANCE.set(previous);
+			} else {
+				ODatabaseRecordThreadLocal.INSTANCE.remove();
+			}
+		}
+	}
+
+	public <T> List<T> findAllParallel(Class<T> entityClass, boolean ordered) {
+		List<ClusterRangeScan<T>> splits = createSplits(entityClass);
+		if (splits.isEmpty()) {
+			return new ArrayList<T>();
+		}
+
+		ExecutorService executor = scanExecutor;
+		boolean ownExecutor = executor == null;
+		if (ownExecutor) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("orientdb-scan-");
+			threadFactory.setDaemon(true);
+			executor = Executors.newFixedThreadPool(Math.min(scanParallelism, splits.size()), threadFactory);
+		}
+
+		CompletionService<List<T>> completionService = new ExecutorCompletionService<List<T>>(executor);
+		List<Future<List<T>>> futures = new ArrayList<Future<List<T>>>(splits.size());
+		try {
+			for (ClusterRangeScan<T> split : splits) {
+				futures.add(completionService.submit(split));
+			}
+
+			List<T> result = new ArrayList<T>();
+			for (int i = 0; i < futures.size(); i++) {
+				Future<List<T>> future = ordered ? futures.get(i) : completionService.take();
+				result.addAll(future.get());
+			}
+			return result;
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new DataRetrievalFailureException("Interrupted while scanning " + entityClass.getName(), e);
+
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new DataRetrievalFailureException("Parallel scan of " + entityClass.getName() + " failed", e.getCause());
+
+		} finally {
+			// no-op when all splits completed
+			for (Future<List<T>> future : futures) {
+				future.cancel(true);
+			}
+			if (ownExecutor) {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * Split the clusters of the entity class into position ranges of at most
+	 * {@link #setScanSplitSize scanSplitSize}, in record id order.
+	 */
+	private <T> List<ClusterRangeScan<T>> createSplits(Class<T> entityClass) {
+		String collectionName = determineCollectionName(entityClass);
+		String fetchPlan = resolveFetchPlan(entityClass, null);
+		List<ClusterRangeScan<T>> splits = new ArrayList<ClusterRangeScan<T>>();
+
+		ODatabaseDocumentTx db = dbManager.getCurrentDatabase();
+		OClass oClass = db.getMetadata().getSchema().getClass(collectionName);
+		if (oClass == null) {
+			return splits;
+		}
+
+		int[] clusterIds = oClass.getPolymorphicClusterIds().clone();
+		Arrays.sort(clusterIds);
+		for (int clusterId : clusterIds) {
+			OClusterPosition[] range = db.getStorage().getClusterDataRange(clusterId);
+			if (range == null || range[0] == null || !range[0].isValid()) {
+				// empty cluster
+				continue;
+			}
+
+			String clusterName = db.getClusterNameById(clusterId);
+			long last = range[1].longValue();
+			long start = range[0].longValue();
+			while (true) {
+				long end = last - start < scanSplitSize ? last : start + scanSplitSize - 1;
+				splits.add(new ClusterRangeScan<T>(dbManager, converter, entityClass, clusterName,
+						OClusterPositionFactory.INSTANCE.valueOf(start), OClusterPositionFactory.INSTANCE.valueOf(end),
+						fetchPlan));
+				if (end == last) {
+					break;
+				}
+				start = end + 1;
+			}
+		}
+		return splits;
+	}
+
+	public <T> KeysetPage<T> findPage(Class<T> entityClass, int pageSize) {
+		return findPage(entityClass, null, pageSize);
+	}
+
+	public <T> KeysetPage<T> findPage(Class<T> entityClass, String continuationToken, int pageSize) {
+		Assert.isTrue(pageSize > 0, "Page size has to be a positive number");
+		String collectionName = determineCollectionName(entityClass);
+		ORID after = continuationToken != null ? KeysetPage.decodeToken(continuationToken, collectionName) : null;
+
+		ODatabaseDocumentTx db = dbManager.getCurrentDatabase();
+		OClass oClass = db.getMetadata().getSchema().getClass(collectionName);
+		if (oClass == null) {
+			return new KeysetPage<T>(Collections.<T> emptyList(), null);
+		}
+
+		int[] clusterIds = oClass.getPolymorphicClusterIds().clone();
+		Arrays.sort(clusterIds);
+		String fetchPlan = resolveFetchPlan(entityClass, null);
+
+		List<ODocument> content = new ArrayList<ODocument>(pageSize);
+		ORID last = null;
+		for (int clusterId : clusterIds) {
+			if (after != null && clusterId < after.getClusterId()) {
+				continue;
+			}
+			OClusterPosition from = after != null && clusterId == after.getClusterId() ? after.getClusterPosition()
+					.inc() : OClusterPosition.INVALID_POSITION;
+
+			ORecordIteratorCluster<ODocument> iterator = db.browseCluster(db.getClusterNameById(clusterId),
+					ODocument.class, from, OClusterPosition.INVALID_POSITION, false);
+			iterator.setFetchPlan(fetchPlan);
+			while (iterator.hasNext()) {
+				if (content.size() == pageSize) {
+					// there is at least one more record
+					return new KeysetPage<T>(converter.read(entityClass, content), KeysetPage.encodeToken(
+							collectionName, last));
+				}
+				ODocument oDoc = iterator.next();
+				content.add(oDoc);
+				last = oDoc.getIdentity();
+			}
+		}
+		return new KeysetPage<T>(converter.read(entityClass, content), null);
+	}
+
+	/**
+	 * Ids have to be OrientDB record ids (<code>#cluster:position</code>), the
+	 * record is loaded directly without any query. Within a transaction the loaded
+	 * entities are kept in the identity map of the bound {@link ODatabaseHolder}
+	 * so repeated lookups return the same instance without touching the
+	 * storage.
+	 */
 	public <T> T findById(Object id, Class<T> entityClass) {
-		// TODO Auto-generated method stub
+		return findById(id, entityClass, null);
+	}
+
+	public <T> T findById(Object id, Class<T> entityClass, String fetchPlan) {
+		Assert.notNull(id, "Id must not be null");
+		Assert.notNull(entityClass, "Entity class must not be null");
+		fetchPlan = resolveFetchPlan(entityClass, fetchPlan);
+
+		ODatabaseDocumentTx db = dbManager.getCurrentDatabase();
+		ORID rid = toRecordId(id);
+		if (rid == null) {
+			throw new InvalidDataAccessApiUsageException("Id [" + id + "] of " + entityClass.getName()
+					+ " is not an OrientDB record id");
+		}
+
+		ODatabaseHolder<?> dbHolder = OrientDatabaseUtils.getDatabaseHolder(db);
+		if (dbHolder != null) {
+			Object cached = dbHolder.getIdentityMap().get(rid);
+			if (entityClass.isInstance(cached)) {
+				return entityClass.cast(cached);
+			}
+		}
+
+		ODocument oDoc = entityCache != null ? loadCachedDocument(db, rid, entityClass, fetchPlan) : loadDocument(
+				db, rid, fetchPlan);
+		if (oDoc == null) {
+			return null;
+		}
+
+		T entity = converter.read(entityClass, oDoc);
+		if (dbHolder != null && entity != null) {
+			dbHolder.getIdentityMap().put(rid, entity);
+			if (dirtyChecking) {
+				getSnapshots(dbHolder).put(rid, DocumentSnapshots.Snapshot.of(oDoc));
+			}
+		}
+		return entity;
+	}
+
+	/**
+	 * The query runs on the current database, so within a transaction it sees
+	 * its uncommitted changes. All documents of the result are converted at
+	 * once.
+	 */
+	public <T> List<T> find(String sql, Class<T> entityClass, String fetchPlan, Object... parameters) {
+		Assert.hasText(sql, "Query must not be empty");
+		Assert.notNull(entityClass, "Entity class must not be null");
+
+		ODatabaseDocumentTx db = dbManager.getCurrentDatabase();
+		if (!db.getMetadata().getSchema().existsClass(determineCollectionName(entityClass))) {
+			return new ArrayList<T>();
+		}
+
+		OSQLSynchQuery<ODocument> query = new OSQLSynchQuery<ODocument>(sql);
+		query.setFetchPlan(resolveFetchPlan(entityClass, fetchPlan));
+		List<ODocument> documents = db.query(query, parameters);
+		return converter.read(entityClass, documents);
+	}
+
+	public long count(Class<?> entityClass) {
+		ODatabaseDocumentTx db = dbManager.getCurrentDatabase();
+		String collectionName = determineCollectionName(entityClass);
+		if (!db.getMetadata().getSchema().existsClass(collectionName)) {
+			return 0;
+		}
+		return db.countClass(collectionName);
+	}
+
+	private static ODocument loadDocument(ODatabaseDocumentTx db, ORID rid) {
+		return loadDocument(db, rid, null);
+	}
+
+	private static ODocument loadDocument(ODatabaseDocumentTx db, ORID rid, String fetchPlan) {
+		try {
+			return fetchPlan != null ? db.<ODocument> load(rid, fetchPlan) : db.<ODocument> load(rid);
+		} catch (ORecordNotFoundException e) {
+			return null;
+		} catch (ODatabaseException e) {
+			if (e.getCause() instanceof ORecordNotFoundException) {
+				return null;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Load the document from the second level cache when the entity is
+	 * cacheable, records changed by the current transaction are always read
+	 * from the database and never cached.
+	 */
+	private ODocument loadCachedDocument(ODatabaseDocumentTx db, ORID rid, Class<?> entityClass, String fetchPlan) {
+		OrientDocumentPersistentEntity<?> entity = getPersistentEntity(entityClass);
+		if (!entity.isCacheable() || db.getTransaction().getRecordEntry(rid) != null) {
+			return loadDocument(db, rid, fetchPlan);
+		}
+
+		ODocument oDoc = entityCache.get(rid);
+		if (oDoc != null) {
+			if (!cacheVersionCheck || oDoc.getVersion() == loadVersion(db, rid)) {
+				return oDoc;
+			}
+			entityCache.evictStale(rid);
+		}
+
+		oDoc = loadDocument(db, rid, fetchPlan);
+		if (oDoc != null) {
+			entityCache.put(oDoc, entity.getCacheTtl());
+		}
+		return oDoc;
+	}
+
+	/**
+	 * @return version of the stored record, <code>-1</code> if there is none
+	 */
+	private static int loadVersion(ODatabaseDocumentTx db, ORID rid) {
+		List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>("select @version as " + VERSION_FIELD_NAME
+				+ " from " + rid));
+		if (result.isEmpty()) {
+			return -1;
+		}
+		Number version = result.get(0).field(VERSION_FIELD_NAME);
+		return version != null ? version.intValue() : -1;
+	}
+
+	/**
+	 * Drop the record from the second level cache, within a transaction once
+	 * more after it completes so that documents cached by others in the
+	 * meantime do not outlive the change.
+	 */
+	private void invalidateCached(ORID rid) {
+		if (entityCache == null) {
+			return;
+		}
+		entityCache.invalidate(rid);
+
+		ODatabaseHolder<?> dbHolder = OrientDatabaseUtils.getDatabaseHolder(dbManager.getCurrentDatabase());
+		if (dbHolder == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		CacheInvalidation invalidation = (CacheInvalidation) dbHolder.getAttribute(CacheInvalidation.class);
+		if (invalidation == null) {
+			invalidation = new CacheInvalidation(entityCache);
+			dbHolder.setAttribute(CacheInvalidation.class, invalidation);
+			TransactionSynchronizationManager.registerSynchronization(invalidation);
+		}
+		invalidation.add(rid);
+	}
+
+	/**
+	 * @return record id when the given id is in the OrientDB record id format, <code>null</code> otherwise
+	 */
+	private static ORID toRecordId(Object id) {
+		if (id instanceof ORID) {
+			return (ORID) id;
+		}
+		if (id instanceof String && RECORD_ID_PATTERN.matcher((String) id).matches()) {
+			return new ORecordId((String) id);
+		}
 		return null;
 	}
 
@@ -95,9 +655,74 @@ public class OrientDocumentTemplate implements OrientDocumentOperations {
 
 	}
 
-	public void insertAll(Collection<? extends Object> objectsToSave) {
-		// TODO Auto-generated method stub
+	public BatchInsertResult insertAll(Collection<? extends Object> objectsToSave) {
+		return insertAll(objectsToSave, batchSize);
+	}
+
+	public BatchInsertResult insertAll(Iterable<? extends Object> objectsToSave, int batchSize) {
+		Assert.notNull(objectsToSave, "Objects to save must not be null");
+		Assert.isTrue(batchSize > 0, "Batch size has to be a positive number");
+
+		ODatabaseDocumentTx db = dbManager.getCurrentDatabase();
+		boolean externalTransaction = db.getTransaction().isActive();
+
+		BatchInsertResult result = new BatchInsertResult();
+		List<ODocument> chunk = new ArrayList<ODocument>(batchSize);
+		Iterator<? extends Object> iterator = objectsToSave.iterator();
+		long index = 0;
 
+		while (iterator.hasNext()) {
+			long firstIndex = index;
+			long start = System.currentTimeMillis();
+			Throwable failure = null;
+
+			chunk.clear();
+			try {
+				while (iterator.hasNext() && chunk.size() < batchSize) {
+					Object objectToSave = iterator.next();
+					index++;
+					ODocument oDoc = new ODocument(determineCollectionName(objectToSave.getClass()));
+					this.converter.write(objectToSave, oDoc);
+					chunk.add(oDoc);
+				}
+				saveChunk(db, chunk, externalTransaction);
+			} catch (RuntimeException e) {
+				if (externalTransaction) {
+					// the surrounding transaction owns the documents, let its manager decide
+					throw e;
+				}
+				LOG.warn("Rolled back chunk of " + chunk.size() + " documents starting at index " + firstIndex, e);
+				failure = e;
+			}
+
+			result.addChunk(new BatchInsertResult.Chunk(firstIndex, (int) (index - firstIndex),
+					System.currentTimeMillis() - start, failure));
+		}
+
+		return result;
+	}
+
+	private void saveChunk(ODatabaseDocumentTx db, List<ODocument> chunk, boolean externalTransaction) {
+		if (externalTransaction) {
+			for (ODocument oDoc : chunk) {
+				db.save(oDoc);
+			}
+			return;
+		}
+
+		db.begin();
+		try {
+			for (ODocument oDoc : chunk) {
+				db.save(oDoc);
+			}
+			db.commit();
+		} catch (RuntimeException e) {
+			db.rollback();
+			throw e;
+		} finally {
+			// committed documents are not needed anymore, do not let them pile up in the local cache
+			db.getLevel1Cache().invalidate();
+		}
 	}
 
 	public void save(Object objectToSave) {
@@ -106,9 +731,139 @@ public class OrientDocumentTemplate implements OrientDocumentOperations {
 
 	/* TODO: this is an extremely simple implementation to see if the design works */
 	public void save(Object objectToSave, String collectionName) {
+		if (dirtyChecking && update(objectToSave)) {
+			return;
+		}
 		ODocument oDoc = new ODocument(collectionName);
 		this.converter.write(objectToSave, oDoc);
 		oDoc.save();
+		setId(objectToSave, oDoc.getIdentity());
+	}
+
+	/**
+	 * Write changed fields of an entity identified by record id into its
+	 * existing record. Fields are compared with the snapshot taken when the
+	 * entity was loaded, without a snapshot with the stored values.
+	 * 
+	 * @return <code>false</code> if the entity has no stored record and has to
+	 *         be inserted
+	 */
+	private boolean update(Object objectToSave) {
+		ORID rid = toRecordId(getId(objectToSave));
+		if (rid == null || !rid.isPersistent()) {
+			return false;
+		}
+
+		ODatabaseDocumentTx db = dbManager.getCurrentDatabase();
+		ODocument current = loadDocument(db, rid);
+		if (current == null) {
+			return false;
+		}
+
+		ODatabaseHolder<?> dbHolder = OrientDatabaseUtils.getDatabaseHolder(db);
+		DocumentSnapshots snapshots = dbHolder != null ? getSnapshots(dbHolder) : null;
+		DocumentSnapshots.Snapshot snapshot = snapshots != null ? snapshots.get(rid) : null;
+		if (snapshot != null && snapshot.getVersion() != current.getVersion()) {
+			throw new OptimisticLockingFailureException("Record " + rid + " was modified since it was loaded");
+		}
+
+		ODocument written = new ODocument();
+		converter.write(objectToSave, written);
+
+		boolean changed = false;
+		for (String fieldName : getMappedFieldNames(objectToSave.getClass())) {
+			Object value = written.field(fieldName);
+			boolean fieldChanged = snapshot != null ? snapshot.isChanged(fieldName, value) : !ObjectUtils
+					.nullSafeEquals(current.field(fieldName), value);
+			if (!fieldChanged) {
+				continue;
+			}
+			if (value != null) {
+				current.field(fieldName, value);
+			} else {
+				current.removeField(fieldName);
+			}
+			changed = true;
+		}
+
+		if (changed) {
+			db.save(current);
+			invalidateCached(rid);
+		}
+		if (snapshots != null) {
+			snapshots.put(rid, DocumentSnapshots.Snapshot.of(current));
+		}
+		return true;
+	}
+
+	private Object getId(Object object) {
+		OrientDocumentPersistentProperty idProperty = getPersistentEntity(object.getClass()).getIdProperty();
+		if (idProperty == null) {
+			return null;
+		}
+		ReflectionUtils.makeAccessible(idProperty.getField());
+		return ReflectionUtils.getField(idProperty.getField(), object);
+	}
+
+	/**
+	 * Fills the record id of a newly stored entity into its id property, if
+	 * the property holds record ids. Within a transaction the record id is
+	 * known only after the commit, when the id is a {@link String}.
+	 */
+	private void setId(Object object, ORID rid) {
+		OrientDocumentPersistentProperty idProperty = getPersistentEntity(object.getClass()).getIdProperty();
+		if (idProperty == null) {
+			return;
+		}
+
+		Object id = null;
+		if (ORID.class.isAssignableFrom(idProperty.getType())) {
+			id = rid;
+		} else if (String.class.equals(idProperty.getType()) && rid.isPersistent()) {
+			id = rid.toString();
+		}
+		if (id != null) {
+			ReflectionUtils.makeAccessible(idProperty.getField());
+			ReflectionUtils.setField(idProperty.getField(), object, id);
+		}
+	}
+
+	/**
+	 * @return names of document fields the entity properties are written to
+	 */
+	private Set<String> getMappedFieldNames(Class<?> entityClass) {
+		Set<String> fieldNames = mappedFieldNames.get(entityClass);
+		if (fieldNames == null) {
+			final OrientDocumentPersistentEntity<?> entity = getPersistentEntity(entityClass);
+			final Set<String> names = new HashSet<String>();
+			OrientDocumentMappingUtils.doWithStoredProperties(entity, new PropertyHandler<OrientDocumentPersistentProperty>() {
+				public void doWithPersistentProperty(OrientDocumentPersistentProperty prop) {
+					if (!prop.equals(entity.getIdProperty())) {
+						names.add(prop.getFieldName());
+					}
+				}
+			});
+			fieldNames = Collections.unmodifiableSet(names);
+			mappedFieldNames.putIfAbsent(entityClass, fieldNames);
+		}
+		return fieldNames;
+	}
+
+	private DocumentSnapshots getSnapshots(ODatabaseHolder<?> dbHolder) {
+		DocumentSnapshots snapshots = (DocumentSnapshots) dbHolder.getAttribute(DocumentSnapshots.class);
+		if (snapshots == null) {
+			snapshots = new DocumentSnapshots(snapshotLimit);
+			dbHolder.setAttribute(DocumentSnapshots.class, snapshots);
+		}
+		return snapshots;
+	}
+
+	/**
+	 * @return the given fetch plan, or the one declared by the entity when
+	 *         none is given
+	 */
+	private String resolveFetchPlan(Class<?> entityClass, String fetchPlan) {
+		return fetchPlan != null ? fetchPlan : getPersistentEntity(entityClass).getFetchPlan();
 	}
 
 	private String determineCollectionName(Class<?> entityClass) {
@@ -118,22 +873,46 @@ public class OrientDocumentTemplate implements OrientDocumentOperations {
 					"No class parameter provided, entity collection can't be determined!");
 		}
 
+		return getPersistentEntity(entityClass).getCollection();
+	}
+
+	private OrientDocumentPersistentEntity<?> getPersistentEntity(Class<?> entityClass) {
 		OrientDocumentPersistentEntity<?> entity = mappingContext.getPersistentEntity(entityClass);
 		if (entity == null) {
 			throw new InvalidDataAccessApiUsageException("No Persitent Entity information found for the class "
 					+ entityClass.getName());
 		}
-		return entity.getCollection();
+		return entity;
 	}
 	
 	public void remove(Object object) {
-		// TODO Auto-generated method stub
-
+		remove(object, determineCollectionName(object.getClass()));
 	}
 
+	/**
+	 * Delete the record of an entity identified by record id, entities
+	 * without one were never stored and are ignored.
+	 */
 	public void remove(Object object, String collectionName) {
-		// TODO Auto-generated method stub
+		Assert.notNull(object, "Object to remove must not be null");
 
+		ORID rid = toRecordId(getId(object));
+		if (rid == null || !rid.isPersistent()) {
+			return;
+		}
+
+		ODatabaseDocumentTx db = dbManager.getCurrentDatabase();
+		ODocument oDoc = loadDocument(db, rid);
+		if (oDoc != null) {
+			db.delete(oDoc);
+		}
+
+		ODatabaseHolder<?> dbHolder = OrientDatabaseUtils.getDatabaseHolder(db);
+		if (dbHolder != null) {
+			dbHolder.getIdentityMap().remove(rid);
+			getSnapshots(dbHolder).remove(rid);
+		}
+		invalidateCached(rid);
 	}
 
 	public OrientDocumentConverter getConverter() {
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.core;
+
+/**
+ * Streaming variant of the read operations of {@link OrientDocumentOperations}. Documents are read from OrientDB
+ * and converted only as the subscriber requests them, in chunks of at most the requested size, so slow subscribers
+ * are fed with constant memory. The database of a subscription is released when the stream completes, fails or
+ * is cancelled.
+ * 
+ * @author Matej Zachar
+ */
+public interface ReactiveOrientDocumentOperations {
+
+	<T> DocumentPublisher<T> findAll(Class<T> entityClass);
+
+	<T> DocumentPublisher<T> findAll(Class<T> entityClass, String fetchPlan);
+
+	/**
+	 * Stream the result of an OrientDB SQL query. Documents are delivered in record id order, every chunk is read by
+	 * its own execution of the query continuing right behind the record id of the last document read, so no document
+	 * is read twice and documents written meanwhile do not shift the rest. The query therefore must not contain
+	 * <code>skip</code>, <code>limit</code> or <code>order by</code>.
+	 * 
+	 * @throws org.springframework.dao.InvalidDataAccessApiUsageException
+	 *             if the query limits or orders the result
+	 * @see OrientDocumentOperations#find(String, Class, String, Object...)
+	 */
+	<T> DocumentPublisher<T> find(String sql, Class<T> entityClass, String fetchPlan, Object... parameters);
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.orientdb.document.core.convert.OrientDocumentConverter;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentEntity;
+import org.springframework.util.Assert;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.iterator.ORecordIteratorClass;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+
+/**
+ * {@link ReactiveOrientDocumentOperations} reading with databases of an {@link OrientDocumentDbManager} and
+ * converting with an {@link OrientDocumentConverter}. Whole classes are streamed by a single browse over their
+ * clusters, queries by re-executing them chunk by chunk, each execution continuing right behind the last record
+ * read.
+ * 
+ * <pre>
+ * template.findAll(Animal.class).subscribe(new DocumentSubscriber&lt;Animal&gt;() {
+ * 	private DocumentSubscription subscription;
+ * 
+ * 	public void onSubscribe(DocumentSubscription subscription) {
+ * 		this.subscription = subscription;
+ * 		subscription.request(100);
+ * 	}
+ * 
+ * 	public void onNext(Animal animal) {
+ * 		// ... write the animal out, request more once the client caught up
+ * 	}
+ * 	...
+ * });
+ * </pre>
+ * 
+ * @author Matej Zachar
+ */
+public class ReactiveOrientDocumentTemplate implements ReactiveOrientDocumentOperations {
+
+	public static final int DEFAULT_MAX_CHUNK_SIZE = 1000;
+
+	private static final Pattern STRING_LITERAL_PATTERN = Pattern.compile("'(?:[^'\\\\]|\\\\.)*'|\"(?:[^\"\\\\]|\\\\.)*\"");
+
+	private static final Pattern PAGING_PATTERN = Pattern.compile("\\b(skip|limit|order\\s+by)\\b", Pattern.CASE_INSENSITIVE);
+
+	private final OrientDocumentDbManager dbManager;
+	private final OrientDocumentConverter converter;
+	private int maxChunkSize = DEFAULT_MAX_CHUNK_SIZE;
+
+	public ReactiveOrientDocumentTemplate(OrientDocumentDbManager dbManager, OrientDocumentConverter converter) {
+		Assert.notNull(dbManager, "Database manager must not be null");
+		Assert.notNull(converter, "Converter must not be null");
+		this.dbManager = dbManager;
+		this.converter = converter;
+	}
+
+	/**
+	 * @param maxChunkSize
+	 *            maximal number of documents read and converted at once, no
+	 *            matter how many the subscriber requested
+	 */
+	public void setMaxChunkSize(int maxChunkSize) {
+		Assert.isTrue(maxChunkSize > 0, "Chunk size has to be a positive number");
+		this.maxChunkSize = maxChunkSize;
+	}
+
+	public <T> DocumentPublisher<T> findAll(Class<T> entityClass) {
+		return findAll(entityClass, null);
+	}
+
+	public <T> DocumentPublisher<T> findAll(Class<T> entityClass, String fetchPlan) {
+		OrientDocumentPersistentEntity<?> entity = getPersistentEntity(entityClass);
+		final String collectionName = entity.getCollection();
+		final String plan = fetchPlan != null ? fetchPlan : entity.getFetchPlan();
+
+		return new DocumentStreamPublisher<T>(dbManager, converter, entityClass,
+				new DocumentStreamPublisher.SourceFactory() {
+					public DocumentStreamPublisher.Source create() {
+						return new ClassSource(collectionName, plan);
+					}
+				}, maxChunkSize);
+	}
+
+	public <T> DocumentPublisher<T> find(final String sql, Class<T> entityClass, String fetchPlan,
+			final Object... parameters) {
+		Assert.hasText(sql, "Query must not be empty");
+		if (PAGING_PATTERN.matcher(STRING_LITERAL_PATTERN.matcher(sql).replaceAll("''")).find()) {
+			throw new InvalidDataAccessApiUsageException(
+					"Streamed query must not use skip, limit or order by, it is read in chunks in record id order: " + sql);
+		}
+		OrientDocumentPersistentEntity<?> entity = getPersistentEntity(entityClass);
+		final String collectionName = entity.getCollection();
+		final String plan = fetchPlan != null ? fetchPlan : entity.getFetchPlan();
+
+		return new DocumentStreamPublisher<T>(dbManager, converter, entityClass,
+				new DocumentStreamPublisher.SourceFactory() {
+					public DocumentStreamPublisher.Source create() {
+						return new QuerySource(collectionName, sql, plan, parameters);
+					}
+				}, maxChunkSize);
+	}
+
+	private OrientDocumentPersistentEntity<?> getPersistentEntity(Class<?> entityClass) {
+		Assert.notNull(entityClass, "Entity class must not be null");
+		OrientDocumentPersistentEntity<?> entity = converter.getMappingContext().getPersistentEntity(entityClass);
+		if (entity == null) {
+			throw new InvalidDataAccessApiUsageException("No Persitent Entity information found for the class "
+					+ entityClass.getName());
+		}
+		return entity;
+	}
+
+	/**
+	 * Browses the clusters of a class, opened on the first read.
+	 */
+	private static class ClassSource implements DocumentStreamPublisher.Source {
+
+		private final String collectionName;
+		private final String fetchPlan;
+		private Iterator<ODocument> iterator;
+
+		ClassSource(String collectionName, String fetchPlan) {
+			this.collectionName = collectionName;
+			this.fetchPlan = fetchPlan;
+		}
+
+		public List<ODocument> read(ODatabaseDocumentTx db, int max) {
+			if (iterator == null) {
+				if (db.getMetadata().getSchema().existsClass(collectionName)) {
+					ORecordIteratorClass<ODocument> classIterator = db.browseClass(collectionName);
+					classIterator.setFetchPlan(fetchPlan);
+					iterator = classIterator;
+				} else {
+					iterator = Collections.<ODocument> emptyList().iterator();
+				}
+			}
+
+			List<ODocument> chunk = new ArrayList<ODocument>(max);
+			while (chunk.size() < max && iterator.hasNext()) {
+				chunk.add(iterator.next());
+			}
+			return chunk;
+		}
+	}
+
+	/**
+	 * Runs the query once per chunk. The same query instance is executed every time, OrientDB then starts each
+	 * execution right behind the record id of the last document of the previous one instead of scanning from the
+	 * beginning.
+	 */
+	private static class QuerySource implements DocumentStreamPublisher.Source {
+
+		private final String collectionName;
+		private final OSQLSynchQuery<ODocument> query;
+		private final Object[] parameters;
+
+		QuerySource(String collectionName, String sql, String fetchPlan, Object[] parameters) {
+			this.collectionName = collectionName;
+			this.query = new OSQLSynchQuery<ODocument>(sql);
+			this.query.setFetchPlan(fetchPlan);
+			this.parameters = parameters;
+		}
+
+		public List<ODocument> read(ODatabaseDocumentTx db, int max) {
+			if (!db.getMetadata().getSchema().existsClass(collectionName)) {
+				return Collections.emptyList();
+			}
+			query.setLimit(max);
+			// the query reuses its result list on the next execution
+			return new ArrayList<ODocument>(db.<List<ODocument>> query(query, parameters));
+		}
+	}
+
+}
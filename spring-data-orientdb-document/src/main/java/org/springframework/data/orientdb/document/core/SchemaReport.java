@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a {@link OrientDocumentSchemaInitializer#initialize()} call. Lists the classes which were created and
+ * holds one {@link IndexBuild} per declared index, including how long it took to build.
+ *
+ * @author Matej Zachar
+ *
+ */
+public class SchemaReport {
+
+	private final List<String> createdClasses = new ArrayList<String>();
+	private final List<IndexBuild> indexBuilds = new ArrayList<IndexBuild>();
+	private int createdPropertyCount;
+	private long elapsedMillis;
+
+	void addCreatedClass(String className) {
+		createdClasses.add(className);
+	}
+
+	void incrementCreatedPropertyCount() {
+		createdPropertyCount++;
+	}
+
+	void addIndexBuild(IndexBuild indexBuild) {
+		indexBuilds.add(indexBuild);
+	}
+
+	void setElapsedMillis(long elapsedMillis) {
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	/**
+	 * @return names of the OrientDB classes which did not exist before
+	 */
+	public List<String> getCreatedClasses() {
+		return Collections.unmodifiableList(createdClasses);
+	}
+
+	/**
+	 * @return number of typed properties added to the schema
+	 */
+	public int getCreatedPropertyCount() {
+		return createdPropertyCount;
+	}
+
+	/**
+	 * @return all declared indexes in the order they were declared
+	 */
+	public List<IndexBuild> getIndexBuilds() {
+		return Collections.unmodifiableList(indexBuilds);
+	}
+
+	/**
+	 * @return indexes which could not be built
+	 */
+	public List<IndexBuild> getFailedIndexBuilds() {
+		List<IndexBuild> failed = new ArrayList<IndexBuild>();
+		for (IndexBuild indexBuild : indexBuilds) {
+			if (indexBuild.isFailed()) {
+				failed.add(indexBuild);
+			}
+		}
+		return failed;
+	}
+
+	public boolean hasFailures() {
+		for (IndexBuild indexBuild : indexBuilds) {
+			if (indexBuild.isFailed()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return wall clock time of the whole initialization in milliseconds
+	 */
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "SchemaReport [createdClasses=" + createdClasses + ", createdProperties=" + createdPropertyCount
+				+ ", indexes=" + indexBuilds.size() + ", failed=" + getFailedIndexBuilds().size() + ", elapsedMillis="
+				+ elapsedMillis + "]";
+	}
+
+	/**
+	 * Single index declared by an entity.
+	 */
+	public static class IndexBuild {
+
+		private final String name;
+		private final String className;
+		private final List<String> fields;
+		private final boolean unique;
+		private final boolean existing;
+		private final long elapsedMillis;
+		private final Throwable failure;
+
+		IndexBuild(String name, String className, List<String> fields, boolean unique, boolean existing,
+				long elapsedMillis, Throwable failure) {
+			this.name = name;
+			this.className = className;
+			this.fields = fields;
+			this.unique = unique;
+			this.existing = existing;
+			this.elapsedMillis = elapsedMillis;
+			this.failure = failure;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getClassName() {
+			return className;
+		}
+
+		/**
+		 * @return indexed document fields in index key order
+		 */
+		public List<String> getFields() {
+			return fields;
+		}
+
+		public boolean isUnique() {
+			return unique;
+		}
+
+		/**
+		 * @return whether the index existed already, so nothing was built
+		 */
+		public boolean isExisting() {
+			return existing;
+		}
+
+		/**
+		 * @return time the build of the index took in milliseconds
+		 */
+		public long getElapsedMillis() {
+			return elapsedMillis;
+		}
+
+		public boolean isFailed() {
+			return failure != null;
+		}
+
+		/**
+		 * @return cause of the failed build or <code>null</code> if the index is in place
+		 */
+		public Throwable getFailure() {
+			return failure;
+		}
+
+		@Override
+		public String toString() {
+			return "IndexBuild [name=" + name + ", class=" + className + ", fields=" + fields + ", unique=" + unique
+					+ (existing ? ", existing" : ", elapsedMillis=" + elapsedMillis)
+					+ (failure != null ? ", failure=" + failure : "") + "]";
+		}
+	}
+
+}
@@ -20,6 +20,9 @@ import org.springframework.dao.DataAccessException;
 import org.springframework.data.authentication.UserCredentials;
 import org.springframework.data.orientdb.OConnectionException;
 import org.springframework.data.orientdb.core.AbstractOrientDbManager;
+import org.springframework.data.orientdb.support.NoOpOrientInstrumentation;
+import org.springframework.data.orientdb.support.OrientInstrumentation;
+import org.springframework.data.orientdb.support.OrientOperation;
 
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
@@ -40,6 +43,7 @@ import com.orientechnologies.orient.core.db.record.ODatabaseRecord;
 
 public class SimpleOrientDocumentDbManager extends AbstractOrientDbManager<ODatabaseDocumentTx> implements OrientDocumentDbManager {
 
+	private OrientInstrumentation instrumentation = NoOpOrientInstrumentation.INSTANCE;
 
 	public SimpleOrientDocumentDbManager(String dbURI) {
 		this(dbURI, UserCredentials.NO_CREDENTIALS);
@@ -49,6 +53,15 @@ public class SimpleOrientDocumentDbManager extends AbstractOrientDbManager<OData
 		super(dbURI, credentials);
 	}
 	
+	/**
+	 * @param instrumentation
+	 *            receives durations of acquiring databases from the pool,
+	 *            <code>null</code> to record nothing
+	 */
+	public void setInstrumentation(OrientInstrumentation instrumentation) {
+		this.instrumentation = instrumentation != null ? instrumentation : NoOpOrientInstrumentation.INSTANCE;
+	}
+	
 	protected ODatabaseDocumentTx getDatabaseFromPool(String dbURI, UserCredentials credentials) {
 		
 		//TODO: add anonymous authentication
@@ -56,6 +69,8 @@ public class SimpleOrientDocumentDbManager extends AbstractOrientDbManager<OData
 			throw new UnsupportedOperationException("Anonymous Authentication not supported yet");
 		}
 		
+		boolean timed = instrumentation.isEnabled();
+		long start = timed ? System.nanoTime() : 0;
 		ODatabaseDocumentTx db = null;
 		try {
 			db = ODatabaseDocumentPool.global().acquire(dbURI, credentials.getUsername(), credentials.getPassword());
@@ -63,6 +78,11 @@ public class SimpleOrientDocumentDbManager extends AbstractOrientDbManager<OData
 		catch (OException e) {
 			throw new OConnectionException("Error Acquiring the Database", e, dbURI, credentials);
 		}
+		finally {
+			if (timed) {
+				instrumentation.record(OrientOperation.ACQUIRE, null, System.nanoTime() - start, db == null);
+			}
+		}
 		return db;
 	}
 	
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.core.convert;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+import org.springframework.core.CollectionFactory;
+import org.springframework.data.mapping.model.MappingException;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentProperty;
+
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.db.record.ORecordLazyList;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+/**
+ * Pre-resolved description of a {@link org.springframework.data.orientdb.document.core.mapping.Link linked} property:
+ * the type of the linked entities and the collection holding them, if any. Reads the record ids stored in the
+ * document without loading the linked records, those are looked up through a {@link LinkResolver}.
+ * 
+ * @author Matej Zachar
+ * 
+ */
+class EntityLink {
+
+	private final Class<?> targetType;
+	private final Class<?> collectionType;
+	private final boolean lazy;
+
+	private EntityLink(Class<?> targetType, Class<?> collectionType, boolean lazy) {
+		this.targetType = targetType;
+		this.collectionType = collectionType;
+		this.lazy = lazy;
+	}
+
+	/**
+	 * @return link of the property, <code>null</code> when it is not a link
+	 */
+	static EntityLink of(OrientDocumentPersistentProperty prop) {
+		if (!prop.isLink()) {
+			return null;
+		}
+		if (prop.isArray() || prop.isMap()) {
+			throw new MappingException("Links are supported for entities and collections of entities only, "
+					+ prop.getName() + " is not one of them");
+		}
+		if (prop.isCollectionLike()) {
+			return new EntityLink(prop.getComponentType(), prop.getType(), prop.isLazyLink());
+		}
+		return new EntityLink(prop.getType(), null, prop.isLazyLink());
+	}
+
+	boolean isLazy() {
+		return lazy;
+	}
+
+	/**
+	 * Adds record ids stored in the field to the given collection, records already loaded along with the document
+	 * (e.g. by a fetch plan) are left out.
+	 * 
+	 * @param stored
+	 *            raw value of the document field
+	 */
+	void collect(Object stored, Collection<ORID> rids) {
+		if (stored instanceof OIdentifiable) {
+			collectElement(stored, rids);
+			return;
+		}
+		for (Iterator<?> it = iterate(stored); it.hasNext();) {
+			collectElement(it.next(), rids);
+		}
+	}
+
+	private static void collectElement(Object element, Collection<ORID> rids) {
+		if (element instanceof OIdentifiable && !(element instanceof ODocument)) {
+			rids.add(((OIdentifiable) element).getIdentity());
+		}
+	}
+
+	/**
+	 * @param stored
+	 *            raw value of the document field
+	 * @return linked entity or collection of linked entities
+	 */
+	@SuppressWarnings("unchecked")
+	Object read(Object stored, LinkResolver resolver) {
+		if (collectionType == null) {
+			return stored instanceof OIdentifiable ? resolver.resolve((OIdentifiable) stored, targetType, lazy) : null;
+		}
+
+		Collection<Object> entities = CollectionFactory.createCollection(collectionType,
+				stored instanceof Collection ? ((Collection<?>) stored).size() : 10);
+		for (Iterator<?> it = iterate(stored); it.hasNext();) {
+			Object element = it.next();
+			if (element instanceof OIdentifiable) {
+				Object entity = resolver.resolve((OIdentifiable) element, targetType, lazy);
+				if (entity != null) {
+					entities.add(entity);
+				}
+			}
+		}
+		return entities;
+	}
+
+	private static Iterator<?> iterate(Object stored) {
+		if (stored instanceof ORecordLazyList) {
+			// plain iteration would load every record
+			return ((ORecordLazyList) stored).rawIterator();
+		}
+		if (stored instanceof Iterable) {
+			return ((Iterable<?>) stored).iterator();
+		}
+		throw new MappingException("Unexpected value of a link collection: " + stored);
+	}
+
+	/**
+	 * Resolves record ids to entities while reading documents.
+	 */
+	interface LinkResolver {
+
+		/**
+		 * @param link
+		 *            record id or the record itself when it was loaded along with the document
+		 * @return entity of the record, <code>null</code> when the record does not exist
+		 */
+		Object resolve(OIdentifiable link, Class<?> type, boolean lazy);
+	}
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.document.core.convert;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.convert.EntityInstantiator;
+import org.springframework.data.convert.ReflectionEntityInstantiator;
+import org.springframework.data.mapping.PreferredConstructor;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.mapping.model.MappingInstantiationException;
+import org.springframework.data.mapping.model.PersistentEntityParameterValueProvider;
+import org.springframework.data.mapping.model.PropertyValueProvider;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentMappingUtils;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentEntity;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentProperty;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+/**
+ * Pre-resolved description of how an entity is materialized from a document, counterpart of
+ * {@link EntityWritePlan}. The persistence constructor, the {@link EntityInstantiator} and accessible fields of
+ * all properties not set through the constructor are looked up once per entity, so reading a document costs one
+ * instantiation plus one field store per property. Linked entities are obtained from the given
+ * {@link EntityLink.LinkResolver}.
+ *
+ * @author Matej Zachar
+ *
+ */
+class EntityReadPlan<T> {
+
+	private final OrientDocumentPersistentEntity<T> entity;
+	private final EntityInstantiator instantiator;
+	private final Constructor<T> noArgConstructor;
+	private final Field idField;
+	private final String[] fieldNames;
+	private final Field[] fields;
+	private final EntityLink[] links;
+	private final Map<OrientDocumentPersistentProperty, EntityLink> constructorLinks;
+	private final boolean linked;
+	private final boolean eagerLinks;
+
+	private EntityReadPlan(OrientDocumentPersistentEntity<T> entity, EntityInstantiator instantiator,
+			Constructor<T> noArgConstructor, Field idField, String[] fieldNames, Field[] fields, EntityLink[] links,
+			Map<OrientDocumentPersistentProperty, EntityLink> constructorLinks) {
+		this.entity = entity;
+		this.instantiator = instantiator;
+		this.noArgConstructor = noArgConstructor;
+		this.idField = idField;
+		this.fieldNames = fieldNames;
+		this.fields = fields;
+		this.links = links;
+		this.constructorLinks = constructorLinks;
+
+		boolean any = !constructorLinks.isEmpty();
+		boolean eager = false;
+		for (EntityLink link : links) {
+			any |= link != null;
+			eager |= link != null && !link.isLazy();
+		}
+		for (EntityLink link : constructorLinks.values()) {
+			eager |= !link.isLazy();
+		}
+		this.linked = any;
+		this.eagerLinks = eager;
+	}
+
+	static <T> EntityReadPlan<T> create(final OrientDocumentPersistentEntity<T> entity, EntityInstantiator instantiator) {
+		final OrientDocumentPersistentProperty idProperty = entity.getIdProperty();
+		final List<String> fieldNames = new ArrayList<String>();
+		final List<Field> fields = new ArrayList<Field>();
+		final List<EntityLink> links = new ArrayList<EntityLink>();
+		final Map<OrientDocumentPersistentProperty, EntityLink> constructorLinks = new HashMap<OrientDocumentPersistentProperty, EntityLink>();
+
+		OrientDocumentMappingUtils.doWithStoredProperties(entity, new PropertyHandler<OrientDocumentPersistentProperty>() {
+			public void doWithPersistentProperty(OrientDocumentPersistentProperty prop) {
+				if (prop.equals(idProperty)) {
+					return;
+				}
+				if (entity.isConstructorArgument(prop)) {
+					if (prop.isLink()) {
+						constructorLinks.put(prop, EntityLink.of(prop));
+					}
+					return;
+				}
+
+				Field field = prop.getField();
+				ReflectionUtils.makeAccessible(field);
+				fieldNames.add(prop.getFieldName());
+				fields.add(field);
+				links.add(EntityLink.of(prop));
+			}
+		});
+
+		Field idField = null;
+		if (idProperty != null && isRecordIdType(idProperty.getType())) {
+			idField = idProperty.getField();
+			ReflectionUtils.makeAccessible(idField);
+		}
+
+		// the default instantiator only adds lookups on top of calling the no-arg constructor
+		Constructor<T> noArgConstructor = null;
+		PreferredConstructor<T, OrientDocumentPersistentProperty> constructor = entity.getPersistenceConstructor();
+		if (instantiator == ReflectionEntityInstantiator.INSTANCE && constructor != null
+				&& constructor.isNoArgConstructor()) {
+			noArgConstructor = constructor.getConstructor();
+			ReflectionUtils.makeAccessible(noArgConstructor);
+		}
+
+		return new EntityReadPlan<T>(entity, instantiator, noArgConstructor, idField, fieldNames
+				.toArray(new String[fieldNames.size()]), fields.toArray(new Field[fields.size()]), links
+				.toArray(new EntityLink[links.size()]), constructorLinks);
+	}
+
+	/**
+	 * @return whether the entity has any linked property, only then {@link #read} needs a resolver
+	 */
+	boolean hasLinks() {
+		return linked;
+	}
+
+	/**
+	 * @return whether reading the entity loads linked records right away
+	 */
+	boolean hasEagerLinks() {
+		return eagerLinks;
+	}
+
+	/**
+	 * Adds record ids the document links to and which are loaded right away by {@link #read} to the given collection.
+	 */
+	void collectEagerLinks(ODocument oDoc, Collection<ORID> rids) {
+		for (int i = 0; i < links.length; i++) {
+			if (links[i] != null && !links[i].isLazy()) {
+				Object stored = oDoc.rawField(fieldNames[i]);
+				if (stored != null) {
+					links[i].collect(stored, rids);
+				}
+			}
+		}
+		for (Map.Entry<OrientDocumentPersistentProperty, EntityLink> link : constructorLinks.entrySet()) {
+			Object stored = oDoc.rawField(link.getKey().getFieldName());
+			if (stored != null && !link.getValue().isLazy()) {
+				link.getValue().collect(stored, rids);
+			}
+		}
+	}
+
+	T read(final ODocument oDoc, final ConversionService conversionService, final EntityLink.LinkResolver resolver) {
+		T instance = instantiate(oDoc, conversionService, resolver);
+
+		try {
+			if (idField != null && oDoc.getIdentity().isValid()) {
+				idField.set(instance, ORID.class.isAssignableFrom(idField.getType()) ? oDoc.getIdentity() : oDoc
+						.getIdentity().toString());
+			}
+
+			for (int i = 0; i < fields.length; i++) {
+				if (links[i] != null) {
+					Object stored = oDoc.rawField(fieldNames[i]);
+					if (stored != null) {
+						fields[i].set(instance, links[i].read(stored, resolver));
+					}
+					continue;
+				}
+
+				Object value = oDoc.field(fieldNames[i]);
+				if (value != null) {
+					fields[i].set(instance, convertIfNecessary(value, fields[i].getType(), conversionService));
+				}
+			}
+		} catch (IllegalAccessException e) {
+			ReflectionUtils.handleReflectionException(e);
+		}
+
+		return instance;
+	}
+
+	private T instantiate(final ODocument oDoc, final ConversionService conversionService,
+			final EntityLink.LinkResolver resolver) {
+		if (noArgConstructor != null) {
+			try {
+				return noArgConstructor.newInstance();
+			} catch (Exception e) {
+				throw new MappingInstantiationException("Could not instantiate " + entity.getType().getName(), e);
+			}
+		}
+
+		PropertyValueProvider<OrientDocumentPersistentProperty> valueProvider = new PropertyValueProvider<OrientDocumentPersistentProperty>() {
+			@SuppressWarnings("unchecked")
+			public <V> V getPropertyValue(OrientDocumentPersistentProperty property) {
+				EntityLink link = constructorLinks.get(property);
+				if (link != null) {
+					Object stored = oDoc.rawField(property.getFieldName());
+					return (V) (stored != null ? link.read(stored, resolver) : null);
+				}
+				return (V) convertIfNecessary(oDoc.field(property.getFieldName()), property.getType(), conversionService);
+			}
+		};
+
+		return instantiator.createInstance(entity, new PersistentEntityParameterValueProvider<OrientDocumentPersistentProperty>(
+				entity, valueProvider, null));
+	}
+
+	private static Object convertIfNecessary(Object value, Class<?> type, ConversionService conversionService) {
+		if (value == null || ClassUtils.isAssignableValue(type, value)) {
+			return value;
+		}
+		return conversionService.convert(value, type);
+	}
+
+	private static boolean isRecordIdType(Class<?> type) {
+		return String.class.equals(type) || Object.class.equals(type) || ORID.class.isAssignableFrom(type);
+	}
+
+}
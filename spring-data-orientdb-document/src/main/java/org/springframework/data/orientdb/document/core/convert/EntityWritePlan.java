@@ -0,0 +1,102 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.document.core.convert;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentMappingUtils;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentEntity;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentProperty;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Pre-resolved description of how an entity is written into a document: flat arrays of document field names and
+ * accessible entity fields in property order, with the id property already left out. Built once per
+ * {@link OrientDocumentPersistentEntity} so writes need no {@link org.springframework.data.mapping.model.BeanWrapper},
+ * no property handler and no annotation lookups.
+ *
+ * @author Matej Zachar
+ *
+ */
+class EntityWritePlan {
+
+	private final String[] fieldNames;
+	private final Field[] fields;
+	private final boolean[] links;
+
+	private EntityWritePlan(String[] fieldNames, Field[] fields, boolean[] links) {
+		this.fieldNames = fieldNames;
+		this.fields = fields;
+		this.links = links;
+	}
+
+	static EntityWritePlan create(OrientDocumentPersistentEntity<?> entity) {
+		final OrientDocumentPersistentProperty idProperty = entity.getIdProperty();
+		final List<String> fieldNames = new ArrayList<String>();
+		final List<Field> fields = new ArrayList<Field>();
+		final List<Boolean> links = new ArrayList<Boolean>();
+
+		OrientDocumentMappingUtils.doWithStoredProperties(entity, new PropertyHandler<OrientDocumentPersistentProperty>() {
+			public void doWithPersistentProperty(OrientDocumentPersistentProperty prop) {
+				if (prop.equals(idProperty)) {
+					return;
+				}
+
+				Field field = prop.getField();
+				ReflectionUtils.makeAccessible(field);
+				fieldNames.add(prop.getFieldName());
+				fields.add(field);
+				links.add(prop.isLink());
+			}
+		});
+
+		boolean[] linkFlags = new boolean[links.size()];
+		for (int i = 0; i < linkFlags.length; i++) {
+			linkFlags[i] = links.get(i);
+		}
+		return new EntityWritePlan(fieldNames.toArray(new String[fieldNames.size()]), fields.toArray(new Field[fields
+				.size()]), linkFlags);
+	}
+
+	int size() {
+		return fields.length;
+	}
+
+	String getFieldName(int index) {
+		return fieldNames[index];
+	}
+
+	/**
+	 * @return whether the value is stored as record ids of the linked entities
+	 */
+	boolean isLink(int index) {
+		return links[index];
+	}
+
+	Object getValue(int index, Object obj) {
+		try {
+			return fields[index].get(obj);
+		} catch (IllegalAccessException e) {
+			ReflectionUtils.handleReflectionException(e);
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.core.convert;
+
+import org.springframework.aop.target.AbstractLazyCreationTargetSource;
+import org.springframework.dao.DataRetrievalFailureException;
+
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+/**
+ * Target of a lazily linked entity, the record is loaded and converted on the first method call on the proxy. Loads
+ * through the current database of the converter, so the proxy can be resolved within a later transaction as well.
+ * 
+ * @author Matej Zachar
+ * 
+ */
+class LazyLinkTargetSource extends AbstractLazyCreationTargetSource {
+
+	private final ORID rid;
+	private final Class<?> type;
+	private final MappingOrientDocumentConverter converter;
+
+	LazyLinkTargetSource(ORID rid, Class<?> type, MappingOrientDocumentConverter converter) {
+		this.rid = rid;
+		this.type = type;
+		this.converter = converter;
+	}
+
+	ORID getIdentity() {
+		return rid;
+	}
+
+	@Override
+	public Class<?> getTargetClass() {
+		return type;
+	}
+
+	@Override
+	protected Object createObject() {
+		ODocument oDoc = converter.loadLink(converter.getCurrentDatabase(), rid);
+		if (oDoc == null) {
+			throw new DataRetrievalFailureException("Linked record " + rid + " does not exist");
+		}
+		return converter.read(type, oDoc);
+	}
+
+}
@@ -16,25 +16,53 @@
 
 package org.springframework.data.orientdb.document.core.convert;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.core.convert.ConversionService;
 import org.springframework.core.convert.support.ConversionServiceFactory;
-import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.convert.EntityInstantiators;
 import org.springframework.data.mapping.context.MappingContext;
-import org.springframework.data.mapping.model.BeanWrapper;
 import org.springframework.data.mapping.model.MappingException;
 import org.springframework.data.mapping.model.SpELContext;
 import org.springframework.data.orientdb.document.core.OrientDocumentDbManager;
 import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentEntity;
 import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentProperty;
+import org.springframework.data.orientdb.support.NoOpOrientInstrumentation;
+import org.springframework.data.orientdb.support.OrientInstrumentation;
+import org.springframework.data.orientdb.support.OrientOperation;
 import org.springframework.data.util.ClassTypeInformation;
 import org.springframework.data.util.TypeInformation;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
 
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.record.ODatabaseRecord;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.exception.ORecordNotFoundException;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.record.ORecordInternal;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
 
 /**
  * 
@@ -57,6 +85,15 @@ public class MappingOrientDocumentConverter extends AbstractOrientDocumentConver
 	
 	private SpELContext spELContext;
 	
+	/** maximal number of record ids loaded by a single query when resolving links */
+	static final int LINK_BATCH_SIZE = 1000;
+	
+	private final ConcurrentMap<Class<?>, EntityWritePlan> writePlans = new ConcurrentHashMap<Class<?>, EntityWritePlan>();
+	private final ConcurrentMap<Class<?>, EntityReadPlan<?>> readPlans = new ConcurrentHashMap<Class<?>, EntityReadPlan<?>>();
+	private final ConcurrentMap<List<Class<?>>, ProjectionReadPlan<?>> projectionPlans = new ConcurrentHashMap<List<Class<?>>, ProjectionReadPlan<?>>();
+
+	private OrientInstrumentation instrumentation = NoOpOrientInstrumentation.INSTANCE;
+	
 	//TODO: Create the conversion service the right way
 	
 	public MappingOrientDocumentConverter(OrientDocumentDbManager dbManager,
@@ -80,8 +117,92 @@ public class MappingOrientDocumentConverter extends AbstractOrientDocumentConver
 		return this.mappingContext;
 	}
 
+	/**
+	 * @param instrumentation
+	 *            receives durations of reads and writes per entity class,
+	 *            <code>null</code> to record nothing
+	 */
+	public void setInstrumentation(OrientInstrumentation instrumentation) {
+		this.instrumentation = instrumentation != null ? instrumentation : NoOpOrientInstrumentation.INSTANCE;
+	}
+
 	public <S extends Object> S read(Class<S> clazz, ODocument oDoc) {
-		return null;
+		if (null == oDoc) {
+			return null;
+		}
+		if (!instrumentation.isEnabled()) {
+			return doRead(clazz, oDoc);
+		}
+
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			S result = doRead(clazz, oDoc);
+			failed = false;
+			return result;
+		} finally {
+			instrumentation.record(OrientOperation.READ, clazz, System.nanoTime() - start, failed);
+		}
+	}
+
+	private <S> S doRead(Class<S> clazz, ODocument oDoc) {
+		@SuppressWarnings("unchecked")
+		OrientDocumentPersistentEntity<S> entity = (OrientDocumentPersistentEntity<S>) mappingContext.getPersistentEntity(clazz);
+		if (null == entity) {
+			throw new MappingException("No mapping metadata found for entity of type " + clazz.getName());
+		}
+
+		EntityReadPlan<S> plan = getReadPlan(entity);
+		return plan.read(oDoc, conversionService, createLinkResolution(plan, Collections.singletonList(oDoc)));
+	}
+
+	public <S> List<S> read(Class<S> clazz, List<ODocument> oDocs) {
+		if (!instrumentation.isEnabled() || oDocs.isEmpty()) {
+			return doRead(clazz, oDocs);
+		}
+
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			List<S> result = doRead(clazz, oDocs);
+			failed = false;
+			return result;
+		} finally {
+			// one event per document as for a single read, links of the batch are resolved at once so each
+			// document gets an even share of the time
+			long nanos = (System.nanoTime() - start) / oDocs.size();
+			for (int i = 0; i < oDocs.size(); i++) {
+				instrumentation.record(OrientOperation.READ, clazz, nanos, failed);
+			}
+		}
+	}
+
+	private <S> List<S> doRead(Class<S> clazz, List<ODocument> oDocs) {
+		@SuppressWarnings("unchecked")
+		OrientDocumentPersistentEntity<S> entity = (OrientDocumentPersistentEntity<S>) mappingContext.getPersistentEntity(clazz);
+		if (null == entity) {
+			throw new MappingException("No mapping metadata found for entity of type " + clazz.getName());
+		}
+
+		EntityReadPlan<S> plan = getReadPlan(entity);
+		LinkResolution links = createLinkResolution(plan, oDocs);
+		List<S> result = new ArrayList<S>(oDocs.size());
+		for (ODocument oDoc : oDocs) {
+			result.add(plan.read(oDoc, conversionService, links));
+		}
+		return result;
+	}
+
+	public String[] getProjectedFields(Class<?> entityClass, Class<?> projectionClass) {
+		return getProjectionPlan(entityClass, projectionClass).getSelectedFields();
+	}
+
+	public <P> P readProjection(Class<?> entityClass, Class<P> projectionClass, ODocument oDoc) {
+		if (null == oDoc) {
+			return null;
+		}
+
+		return getProjectionPlan(entityClass, projectionClass).read(oDoc, conversionService);
 	}
 
 	public void write(Object obj, ODocument oDoc) {
@@ -96,7 +217,19 @@ public class MappingOrientDocumentConverter extends AbstractOrientDocumentConver
 //			typeMapper.writeType(type, dbo);
 //		}
 
-		writeInternal(obj, oDoc, type);
+		if (!instrumentation.isEnabled()) {
+			writeInternal(obj, oDoc, type);
+			return;
+		}
+
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			writeInternal(obj, oDoc, type);
+			failed = false;
+		} finally {
+			instrumentation.record(OrientOperation.WRITE, obj.getClass(), System.nanoTime() - start, failed);
+		}
 	}
 
 	protected void writeInternal(final Object obj, final ODocument oDoc, final TypeInformation<?> typeHint) {
@@ -139,39 +272,257 @@ public class MappingOrientDocumentConverter extends AbstractOrientDocumentConver
 			throw new MappingException("No mapping metadata found for entity of type " + obj.getClass().getName());
 		}
 
-		final BeanWrapper<OrientDocumentPersistentEntity<Object>, Object> wrapper = BeanWrapper.create(obj, conversionService);
+		EntityWritePlan plan = getWritePlan(entity);
 
-		// Write the ID
-		final OrientDocumentPersistentProperty idProperty = entity.getIdProperty();
-//		if (!dbo.containsField("_id") && null != idProperty) {
-//
-//			try {
-//				Object id = wrapper.getProperty(idProperty, Object.class, useFieldAccessOnly);
-//				dbo.put("_id", idMapper.convertId(id));
-//			} catch (ConversionException ignored) {
-//			}
-//		}
+		// Write the properties, the id property is not part of the plan
+		for (int i = 0; i < plan.size(); i++) {
+			Object propertyObj = plan.getValue(i, obj);
+
+			if (null != propertyObj) {
+				if (plan.isLink(i)) {
+					oDoc.field(plan.getFieldName(i), writeLink(propertyObj));
+//				} else if (!conversions.isSimpleType(propertyObj.getClass())) {
+//					writePropertyInternal(propertyObj, dbo, prop);
+				} else {
+					writeSimpleInternal(propertyObj, oDoc, plan.getFieldName(i));
+				}
+			}
+		}
+
+	}
+	
+	/**
+	 * Returns the cached write plan of the entity, compiling it on first use.
+	 */
+	private EntityWritePlan getWritePlan(OrientDocumentPersistentEntity<?> entity) {
+		EntityWritePlan plan = writePlans.get(entity.getType());
+		if (plan == null) {
+			plan = EntityWritePlan.create(entity);
+			EntityWritePlan existing = writePlans.putIfAbsent(entity.getType(), plan);
+			if (existing != null) {
+				plan = existing;
+			}
+		}
+		return plan;
+	}
+	
+	/**
+	 * Returns the cached read plan of the entity, compiling it on first use.
+	 */
+	@SuppressWarnings("unchecked")
+	private <S> EntityReadPlan<S> getReadPlan(OrientDocumentPersistentEntity<S> entity) {
+		EntityReadPlan<S> plan = (EntityReadPlan<S>) readPlans.get(entity.getType());
+		if (plan == null) {
+			plan = EntityReadPlan.create(entity, instantiators.getInstantiatorFor(entity));
+			EntityReadPlan<S> existing = (EntityReadPlan<S>) readPlans.putIfAbsent(entity.getType(), plan);
+			if (existing != null) {
+				plan = existing;
+			}
+		}
+		return plan;
+	}
+	
+	/**
+	 * Returns the cached read plan of the projection, compiling it on first use.
+	 */
+	@SuppressWarnings("unchecked")
+	private <P> ProjectionReadPlan<P> getProjectionPlan(Class<?> entityClass, Class<P> projectionClass) {
+		List<Class<?>> key = Arrays.<Class<?>> asList(entityClass, projectionClass);
+		ProjectionReadPlan<P> plan = (ProjectionReadPlan<P>) projectionPlans.get(key);
+		if (plan == null) {
+			OrientDocumentPersistentEntity<?> entity = mappingContext.getPersistentEntity(entityClass);
+			if (null == entity) {
+				throw new MappingException("No mapping metadata found for entity of type " + entityClass.getName());
+			}
+			plan = ProjectionReadPlan.create(entity, projectionClass);
+			ProjectionReadPlan<P> existing = (ProjectionReadPlan<P>) projectionPlans.putIfAbsent(key, plan);
+			if (existing != null) {
+				plan = existing;
+			}
+		}
+		return plan;
+	}
+	
+	/**
+	 * @return resolution of links of the documents, their eager links already loaded, <code>null</code> if the
+	 *         entity has no links
+	 */
+	private LinkResolution createLinkResolution(EntityReadPlan<?> plan, List<ODocument> oDocs) {
+		if (!plan.hasLinks()) {
+			return null;
+		}
+		if (!plan.hasEagerLinks()) {
+			return new LinkResolution(Collections.<ORID, ODocument> emptyMap());
+		}
 
-		// Write the properties
-		entity.doWithProperties(new PropertyHandler<OrientDocumentPersistentProperty>() {
-			public void doWithPersistentProperty(OrientDocumentPersistentProperty prop) {
+		Set<ORID> rids = new LinkedHashSet<ORID>();
+		for (ODocument oDoc : oDocs) {
+			plan.collectEagerLinks(oDoc, rids);
+		}
+		return new LinkResolution(loadLinks(ODatabaseRecordThreadLocal.INSTANCE.get(), rids));
+	}
 
-				if (prop.equals(idProperty)) {
-					return;
+	/**
+	 * @return record id, or list of record ids, of the linked entities
+	 */
+	private Object writeLink(Object value) {
+		if (value instanceof Collection) {
+			// a mutable list, OrientDB reworks link lists while serializing them
+			List<ORID> rids = new ArrayList<ORID>(((Collection<?>) value).size());
+			for (Object element : (Collection<?>) value) {
+				if (element != null) {
+					rids.add(getRecordId(element));
 				}
+			}
+			return rids;
+		}
+		return getRecordId(value);
+	}
 
-				Object propertyObj = wrapper.getProperty(prop, prop.getType(), useFieldAccessOnly);
+	private ORID getRecordId(Object linked) {
+		if (linked instanceof OIdentifiable) {
+			return ((OIdentifiable) linked).getIdentity();
+		}
+		if (linked instanceof Advised && ((Advised) linked).getTargetSource() instanceof LazyLinkTargetSource) {
+			// not resolved yet, and there is no need to
+			return ((LazyLinkTargetSource) ((Advised) linked).getTargetSource()).getIdentity();
+		}
 
-				if (null != propertyObj) {
-//					if (!conversions.isSimpleType(propertyObj.getClass())) {
-//						writePropertyInternal(propertyObj, dbo, prop);
-//					} else {
-						writeSimpleInternal(propertyObj, oDoc, prop.getFieldName());
-//					}
+		OrientDocumentPersistentEntity<?> entity = mappingContext.getPersistentEntity(linked.getClass());
+		OrientDocumentPersistentProperty idProperty = entity != null ? entity.getIdProperty() : null;
+		Object id = null;
+		if (idProperty != null) {
+			ReflectionUtils.makeAccessible(idProperty.getField());
+			id = ReflectionUtils.getField(idProperty.getField(), linked);
+		}
+		if (id instanceof ORID) {
+			return (ORID) id;
+		}
+		if (id instanceof String) {
+			try {
+				return new ORecordId((String) id);
+			} catch (IllegalArgumentException e) {
+				// not a record id, reported below
+			}
+		}
+		throw new MappingException("Cannot link " + linked.getClass().getName()
+				+ " without a record id, the linked entity has to be saved first");
+	}
+
+	/**
+	 * Loads linked records with a single query per {@link #LINK_BATCH_SIZE} record ids. Records found in the local
+	 * cache of the database, e.g. those sent along by a fetch plan, are not loaded again.
+	 */
+	private Map<ORID, ODocument> loadLinks(ODatabaseRecord db, Collection<ORID> rids) {
+		if (rids.isEmpty()) {
+			return Collections.emptyMap();
+		}
+
+		Map<ORID, ODocument> loaded = new HashMap<ORID, ODocument>(rids.size() * 2);
+		List<ORID> batch = new ArrayList<ORID>(Math.min(rids.size(), LINK_BATCH_SIZE));
+		for (Iterator<ORID> it = rids.iterator(); it.hasNext();) {
+			ORID rid = it.next();
+			ORecordInternal<?> cached = db.getLevel1Cache().findRecord(rid);
+			if (cached instanceof ODocument) {
+				loaded.put(rid, (ODocument) cached);
+			} else {
+				batch.add(rid);
+			}
+			if (!batch.isEmpty() && (batch.size() == LINK_BATCH_SIZE || !it.hasNext())) {
+				List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>("select from ["
+						+ StringUtils.collectionToCommaDelimitedString(batch) + "]"));
+				for (ODocument oDoc : result) {
+					loaded.put(oDoc.getIdentity(), oDoc);
 				}
+				batch.clear();
+			}
+		}
+		return loaded;
+	}
+
+	/**
+	 * @return the record, <code>null</code> if it does not exist
+	 */
+	ODocument loadLink(ODatabaseRecord db, ORID rid) {
+		try {
+			return db.load(rid);
+		} catch (ORecordNotFoundException e) {
+			return null;
+		}
+	}
+
+	ODatabaseRecord getCurrentDatabase() {
+		return dbManager.getCurrentDatabase();
+	}
+
+	private Object createLazyLink(ORID rid, Class<?> type) {
+		ProxyFactory proxyFactory = new ProxyFactory();
+		proxyFactory.setTargetSource(new LazyLinkTargetSource(rid, type, this));
+		proxyFactory.setProxyTargetClass(true);
+		return proxyFactory.getProxy(type.getClassLoader());
+	}
+
+	/**
+	 * Resolution of links within one read call. Linked records read more than once share a single entity, records
+	 * which link back to an entity still being read get a lazy proxy instead of an endless recursion.
+	 */
+	private class LinkResolution implements EntityLink.LinkResolver {
+
+		private final Map<ORID, ODocument> loaded;
+		private final Map<ORID, Object> resolved = new HashMap<ORID, Object>();
+		private final Set<ORID> reading = new HashSet<ORID>();
+
+		LinkResolution(Map<ORID, ODocument> loaded) {
+			this.loaded = loaded;
+		}
+
+		public Object resolve(OIdentifiable link, Class<?> type, boolean lazy) {
+			ORID rid = link.getIdentity();
+			Object entity = resolved.get(rid);
+			if (entity != null) {
+				return entity;
+			}
+			if (lazy || reading.contains(rid)) {
+				return createLazyLink(rid, type);
 			}
-		});
 
+			ODocument oDoc = link instanceof ODocument ? (ODocument) link : loaded.get(rid);
+			if (oDoc == null) {
+				oDoc = loadLink(ODatabaseRecordThreadLocal.INSTANCE.get(), rid);
+			}
+			if (oDoc == null) {
+				return null;
+			}
+
+			EntityReadPlan<?> plan = getReadPlan(getPersistentEntity(type));
+			reading.add(rid);
+			try {
+				entity = plan.read(oDoc, conversionService, this);
+			} finally {
+				reading.remove(rid);
+			}
+			resolved.put(rid, entity);
+			return entity;
+		}
+	}
+
+	private OrientDocumentPersistentEntity<?> getPersistentEntity(Class<?> type) {
+		OrientDocumentPersistentEntity<?> entity = mappingContext.getPersistentEntity(type);
+		if (null == entity) {
+			throw new MappingException("No mapping metadata found for entity of type " + type.getName());
+		}
+		return entity;
+	}
+	
+	/*
+	 * (non-Javadoc)
+	 * @see org.springframework.data.orientdb.document.core.convert.AbstractOrientDocumentConverter#setInstantiators(org.springframework.data.convert.EntityInstantiators)
+	 */
+	@Override
+	public void setInstantiators(EntityInstantiators instantiators) {
+		super.setInstantiators(instantiators);
+		// read plans hold the instantiator resolved from the previous instantiators
+		readPlans.clear();
 	}
 	
 	private void writeSimpleInternal(Object value, ODocument oDoc, String key) {
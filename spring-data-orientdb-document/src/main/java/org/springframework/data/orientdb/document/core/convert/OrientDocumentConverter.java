@@ -16,6 +16,8 @@
 
 package org.springframework.data.orientdb.document.core.convert;
 
+import java.util.List;
+
 import org.springframework.data.convert.EntityConverter;
 import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentEntity;
 import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentProperty;
@@ -31,4 +33,24 @@ import com.orientechnologies.orient.core.record.impl.ODocument;
 public interface OrientDocumentConverter extends 
 	EntityConverter<OrientDocumentPersistentEntity<?>, OrientDocumentPersistentProperty, Object, ODocument>{
 
+	/**
+	 * Reads documents read together, e.g. a page of a query. Records the documents link to are loaded at once for
+	 * all of them, with a single query per batch of links, unless the links are lazy.
+	 */
+	<S> List<S> read(Class<S> clazz, List<ODocument> oDocs);
+
+	/**
+	 * Returns the projections of a <code>SELECT</code> clause reading just the document fields the projection class
+	 * needs. Projection fields are matched to the entity properties by name.
+	 * 
+	 * @param entityClass mapped entity the documents belong to
+	 * @param projectionClass class declaring a subset of the entity properties
+	 */
+	String[] getProjectedFields(Class<?> entityClass, Class<?> projectionClass);
+
+	/**
+	 * Reads a document selected with {@link #getProjectedFields(Class, Class)} into a new projection instance.
+	 */
+	<P> P readProjection(Class<?> entityClass, Class<P> projectionClass, ODocument oDoc);
+
 }
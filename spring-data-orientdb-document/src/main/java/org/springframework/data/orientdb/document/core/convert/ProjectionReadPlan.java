@@ -0,0 +1,143 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.document.core.convert;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.mapping.model.MappingException;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentMappingUtils;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentEntity;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentProperty;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+/**
+ * Read plan of a projection, a plain class declaring a subset of the entity properties as fields of the same name.
+ * Knows the document fields to select and maps just those onto a new instance of the projection, the id property
+ * is filled from the record id selected as {@link #RID_FIELD}.
+ *
+ * @author Matej Zachar
+ *
+ */
+class ProjectionReadPlan<P> {
+
+	/** alias of the record id in projection queries */
+	static final String RID_FIELD = "_rid";
+
+	private final Constructor<P> constructor;
+	private final String[] selectedFields;
+	private final String[] fieldNames;
+	private final Field[] fields;
+
+	private ProjectionReadPlan(Constructor<P> constructor, String[] selectedFields, String[] fieldNames,
+			Field[] fields) {
+		this.constructor = constructor;
+		this.selectedFields = selectedFields;
+		this.fieldNames = fieldNames;
+		this.fields = fields;
+	}
+
+	static <P> ProjectionReadPlan<P> create(final OrientDocumentPersistentEntity<?> entity,
+			final Class<P> projectionClass) {
+		final OrientDocumentPersistentProperty idProperty = entity.getIdProperty();
+		final List<String> selectedFields = new ArrayList<String>();
+		final List<String> fieldNames = new ArrayList<String>();
+		final List<Field> fields = new ArrayList<Field>();
+
+		OrientDocumentMappingUtils.doWithStoredProperties(entity, new PropertyHandler<OrientDocumentPersistentProperty>() {
+			public void doWithPersistentProperty(OrientDocumentPersistentProperty prop) {
+				Field field = ReflectionUtils.findField(projectionClass, prop.getName());
+				if (field == null || Modifier.isStatic(field.getModifiers())) {
+					return;
+				}
+
+				ReflectionUtils.makeAccessible(field);
+				if (prop.equals(idProperty)) {
+					selectedFields.add("@rid as " + RID_FIELD);
+					fieldNames.add(RID_FIELD);
+				} else {
+					selectedFields.add(prop.getFieldName());
+					fieldNames.add(prop.getFieldName());
+				}
+				fields.add(field);
+			}
+		});
+
+		if (fields.isEmpty()) {
+			throw new MappingException("Projection " + projectionClass.getName() + " has no property of "
+					+ entity.getType().getName());
+		}
+
+		Constructor<P> constructor;
+		try {
+			constructor = projectionClass.getDeclaredConstructor();
+		} catch (NoSuchMethodException e) {
+			throw new MappingException("Projection " + projectionClass.getName() + " needs a no-arg constructor");
+		}
+		ReflectionUtils.makeAccessible(constructor);
+
+		return new ProjectionReadPlan<P>(constructor, selectedFields.toArray(new String[selectedFields.size()]),
+				fieldNames.toArray(new String[fieldNames.size()]), fields.toArray(new Field[fields.size()]));
+	}
+
+	/**
+	 * @return projections of the <code>SELECT</code> clause
+	 */
+	String[] getSelectedFields() {
+		return selectedFields.clone();
+	}
+
+	P read(ODocument oDoc, ConversionService conversionService) {
+		P instance = BeanUtils.instantiateClass(constructor);
+
+		try {
+			for (int i = 0; i < fields.length; i++) {
+				Object value = oDoc.field(fieldNames[i]);
+				if (value != null) {
+					fields[i].set(instance, convert(value, fields[i].getType(), conversionService));
+				}
+			}
+		} catch (IllegalAccessException e) {
+			ReflectionUtils.handleReflectionException(e);
+		}
+
+		return instance;
+	}
+
+	private static Object convert(Object value, Class<?> type, ConversionService conversionService) {
+		if (value instanceof OIdentifiable && !ClassUtils.isAssignableValue(type, value)) {
+			ORID rid = ((OIdentifiable) value).getIdentity();
+			return ClassUtils.isAssignableValue(type, rid) ? rid : rid.toString();
+		}
+		if (ClassUtils.isAssignableValue(type, value)) {
+			return value;
+		}
+		return conversionService.convert(value, type);
+	}
+
+}
@@ -41,14 +41,16 @@ public class BasicOrientDocumentPersistentEntity<T> extends BasicPersistentEntit
 OrientDocumentPersistentEntity<T>, ApplicationContextAware {
 
 	private final String collection;
-	private final SpelExpressionParser parser;
+	private final Expression collectionExpression;
 	private final StandardEvaluationContext context;
+	private final boolean cacheable;
+	private final long cacheTtl;
+	private final String fetchPlan;
 
 	public BasicOrientDocumentPersistentEntity(TypeInformation<T> typeInformation) {
 
 		super(typeInformation, OrientDocumentPersistentPropertyComparator.INSTANCE);
 
-		this.parser = new SpelExpressionParser();
 		this.context = new StandardEvaluationContext();
 
 		Class<?> rawType = typeInformation.getType();
@@ -57,9 +59,20 @@ OrientDocumentPersistentEntity<T>, ApplicationContextAware {
 		if (rawType.isAnnotationPresent(Document.class)) {
 			Document d = rawType.getAnnotation(Document.class);
 			this.collection = StringUtils.hasText(d.collection()) ? d.collection() : fallback;
+			this.cacheable = d.cacheable();
+			this.cacheTtl = d.cacheTtl();
 		} else {
 			this.collection = fallback;
+			this.cacheable = false;
+			this.cacheTtl = 0;
 		}
+
+		FetchPlan plan = rawType.getAnnotation(FetchPlan.class);
+		this.fetchPlan = plan != null && StringUtils.hasText(plan.value()) ? plan.value() : null;
+
+		// plain names are returned as they are, only templates need SpEL
+		this.collectionExpression = isExpression(collection) ? new SpelExpressionParser().parseExpression(collection,
+				ParserContext.TEMPLATE_EXPRESSION) : null;
 	}
 
 	/*
@@ -73,14 +86,33 @@ OrientDocumentPersistentEntity<T>, ApplicationContextAware {
 	}
 
 	/**
-	 * Returns the collection the entity should be stored in.
+	 * Returns the collection the entity should be stored in. SpEL templates
+	 * are parsed once and evaluated on every call, so they may resolve to a
+	 * different collection each time (e.g. per tenant).
 	 * 
 	 * @return
 	 */
 	public String getCollection() {
+		if (collectionExpression == null) {
+			return collection;
+		}
+		return collectionExpression.getValue(context, String.class);
+	}
+
+	public boolean isCacheable() {
+		return cacheable;
+	}
+
+	public long getCacheTtl() {
+		return cacheTtl;
+	}
+
+	public String getFetchPlan() {
+		return fetchPlan;
+	}
 
-		Expression expression = parser.parseExpression(collection, ParserContext.TEMPLATE_EXPRESSION);
-		return expression.getValue(context, String.class);
+	private static boolean isExpression(String collection) {
+		return collection.contains(ParserContext.TEMPLATE_EXPRESSION.getExpressionPrefix());
 	}
 
 	static enum OrientDocumentPersistentPropertyComparator implements Comparator<OrientDocumentPersistentProperty> {
@@ -51,19 +51,30 @@ OrientDocumentPersistentProperty {
 //		SUPPORTED_ID_PROPERTY_NAMES.add("_id");
 	}
 
+	private final String fieldName;
+	private final int fieldOrder;
+	private final Link link;
+
 	public BasicOrientDocumentPersistentProperty(Field field, PropertyDescriptor propertyDescriptor,
 			OrientDocumentPersistentEntity<?> owner, SimpleTypeHolder simpleTypeHolder) {
 		super(field, propertyDescriptor, owner, simpleTypeHolder);
 
+		// resolved once, both are used on every write
+		org.springframework.data.orientdb.document.core.mapping.Field annotation = getField().getAnnotation(
+				org.springframework.data.orientdb.document.core.mapping.Field.class);
+		this.fieldName = determineFieldName(annotation);
+		this.fieldOrder = annotation != null ? annotation.order() : Integer.MAX_VALUE;
+		this.link = getField().getAnnotation(Link.class);
+
 		if (isIdProperty() && getFieldName() != ID_FIELD_NAME) {
 			LOG.warn("Customizing field name for id property not allowed! Custom name will not be considered!");
 		}
 	}
 
-//	@Override
-//	public boolean isAssociation() {
-//		return field.isAnnotationPresent(DBRef.class) || super.isAssociation();
-//	}
+	@Override
+	public boolean isAssociation() {
+		return link != null || super.isAssociation();
+	}
 
 	@Override
 	public boolean isIdProperty() {
@@ -81,22 +92,30 @@ OrientDocumentPersistentProperty {
 	 * @return
 	 */
 	public String getFieldName() {
+		return fieldName;
+	}
+
+	public int getFieldOrder() {
+		return fieldOrder;
+	}
+
+	public boolean isLink() {
+		return link != null;
+	}
+
+	public boolean isLazyLink() {
+		return link != null && link.lazy();
+	}
+
+	private String determineFieldName(org.springframework.data.orientdb.document.core.mapping.Field annotation) {
 
 		if (isIdProperty()) {
 			return ID_FIELD_NAME;
 		}
 
-		org.springframework.data.orientdb.document.core.mapping.Field annotation = getField().getAnnotation(
-				org.springframework.data.orientdb.document.core.mapping.Field.class);
 		return annotation != null && StringUtils.hasText(annotation.value()) ? annotation.value() : field.getName();
 	}
 
-	public int getFieldOrder() {
-		org.springframework.data.orientdb.document.core.mapping.Field annotation = getField().getAnnotation(
-				org.springframework.data.orientdb.document.core.mapping.Field.class);
-		return annotation != null ? annotation.order() : Integer.MAX_VALUE;
-	}
-
 	/* (non-Javadoc)
 	 * @see org.springframework.data.mapping.AbstractPersistentProperty#createAssociation()
 	 */
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.core.mapping;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares an index over several properties of the entity, see {@link CompoundIndexes} to declare more of them.
+ * 
+ * @author Matej Zachar
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE })
+public @interface CompoundIndex {
+
+	/**
+	 * Name of the index, defaults to <code>Class.property1_property2</code>.
+	 */
+	String name() default "";
+
+	/**
+	 * Names of the indexed entity properties, in index key order.
+	 */
+	String[] properties();
+
+	/**
+	 * Whether the index rejects documents with a combination of values already present.
+	 */
+	boolean unique() default false;
+}
@@ -37,4 +37,15 @@ import org.springframework.data.annotation.Persistent;
 public @interface Document {
 
 	String collection() default "";
+
+	/**
+	 * Whether documents of the entity are kept in the second level cache of the template, when it has one. Meant
+	 * for read-mostly data.
+	 */
+	boolean cacheable() default false;
+
+	/**
+	 * Milliseconds a cached document stays valid, <code>0</code> keeps it until it is evicted or invalidated.
+	 */
+	long cacheTtl() default 0;
 }
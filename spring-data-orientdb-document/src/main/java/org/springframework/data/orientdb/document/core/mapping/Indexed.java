@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.core.mapping;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a property to be indexed. The index is created by
+ * {@link org.springframework.data.orientdb.document.core.OrientDocumentSchemaInitializer} on startup, unless it exists.
+ * 
+ * @author Matej Zachar
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD })
+public @interface Indexed {
+
+	/**
+	 * Name of the index, defaults to <code>Class.field</code>.
+	 */
+	String name() default "";
+
+	/**
+	 * Whether the index rejects documents with a value already present.
+	 */
+	boolean unique() default false;
+}
@@ -16,6 +16,10 @@
 
 package org.springframework.data.orientdb.document.core.mapping;
 
+import org.springframework.data.mapping.Association;
+import org.springframework.data.mapping.AssociationHandler;
+import org.springframework.data.mapping.PropertyHandler;
+
 /**
  * 
  * @author "Forat Latif"
@@ -43,4 +47,21 @@ public abstract class OrientDocumentMappingUtils {
 		return entityClass.getSimpleName();
 	}
 
+	/**
+	 * Executes the handler for every property stored in the document, i.e. for plain properties as well as for
+	 * {@link Link links}, which the mapping context keeps as associations.
+	 * 
+	 * @param entity entity to walk
+	 * @param handler handler called for each stored property
+	 */
+	public static void doWithStoredProperties(OrientDocumentPersistentEntity<?> entity,
+			final PropertyHandler<OrientDocumentPersistentProperty> handler) {
+		entity.doWithProperties(handler);
+		entity.doWithAssociations(new AssociationHandler<OrientDocumentPersistentProperty>() {
+			public void doWithAssociation(Association<OrientDocumentPersistentProperty> association) {
+				handler.doWithPersistentProperty(association.getInverse());
+			}
+		});
+	}
+
 }
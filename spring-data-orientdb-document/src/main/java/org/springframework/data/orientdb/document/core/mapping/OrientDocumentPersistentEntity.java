@@ -27,4 +27,19 @@ import org.springframework.data.mapping.PersistentEntity;
 public interface OrientDocumentPersistentEntity<T> extends PersistentEntity<T, OrientDocumentPersistentProperty> {
 
 	String getCollection();
+
+	/**
+	 * @return whether documents of the entity may be kept in the second level cache
+	 */
+	boolean isCacheable();
+
+	/**
+	 * @return milliseconds a cached document stays valid, <code>0</code> for no expiration
+	 */
+	long getCacheTtl();
+
+	/**
+	 * @return fetch plan declared by {@link FetchPlan} on the entity, <code>null</code> if there is none
+	 */
+	String getFetchPlan();
 }
@@ -40,6 +40,18 @@ public interface OrientDocumentPersistentProperty extends PersistentProperty<Ori
 		 */
 		int getFieldOrder();
 
+		/**
+		 * Returns whether the property is stored as record ids of the linked entities.
+		 * 
+		 * @see Link
+		 */
+		boolean isLink();
+
+		/**
+		 * Returns whether linked entities are loaded only when first accessed.
+		 */
+		boolean isLazyLink();
+
 		public enum PropertyToFieldNameConverter implements Converter<OrientDocumentPersistentProperty, String> {
 
 			INSTANCE;
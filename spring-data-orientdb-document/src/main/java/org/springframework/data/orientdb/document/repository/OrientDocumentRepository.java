@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.repository;
+
+import java.io.Serializable;
+import java.util.List;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+/**
+ * OrientDB document specific {@link CrudRepository}. Query methods of extending interfaces are derived from their
+ * names, e.g. <code>findByNameAndAgeGreaterThan</code>, and compiled to OrientDB SQL once when the repository is
+ * created.
+ * 
+ * @author Matej Zachar
+ */
+@NoRepositoryBean
+public interface OrientDocumentRepository<T, ID extends Serializable> extends CrudRepository<T, ID> {
+
+	<S extends T> List<S> save(Iterable<S> entities);
+
+	List<T> findAll();
+
+}
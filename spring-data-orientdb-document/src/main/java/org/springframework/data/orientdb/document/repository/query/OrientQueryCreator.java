@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.repository.query;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentEntity;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentProperty;
+import org.springframework.data.repository.query.parser.AbstractQueryCreator;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+
+/**
+ * Translates a {@link PartTree} into the <code>where</code> and <code>order by</code> clauses of an OrientDB SQL
+ * query with positional placeholders. Created without parameter values, the query is built once per method and the
+ * {@link ParameterBinding}s record how the arguments fill the placeholders.
+ * 
+ * @author Matej Zachar
+ */
+class OrientQueryCreator extends AbstractQueryCreator<String, StringBuilder> {
+
+	private static final String RECORD_ID_FIELD = "@rid";
+
+	private final Class<?> entityType;
+	private final MappingContext<? extends OrientDocumentPersistentEntity<?>, OrientDocumentPersistentProperty> mappingContext;
+	private final List<ParameterBinding> bindings = new ArrayList<ParameterBinding>();
+
+	OrientQueryCreator(PartTree tree, Class<?> entityType,
+			MappingContext<? extends OrientDocumentPersistentEntity<?>, OrientDocumentPersistentProperty> mappingContext) {
+		super(tree);
+		this.entityType = entityType;
+		this.mappingContext = mappingContext;
+	}
+
+	/**
+	 * @return bindings of the placeholders of the created query, in placeholder order
+	 */
+	List<ParameterBinding> getBindings() {
+		return bindings;
+	}
+
+	@Override
+	protected StringBuilder create(Part part, Iterator<Object> iterator) {
+		return new StringBuilder().append(createCondition(part));
+	}
+
+	@Override
+	protected StringBuilder and(Part part, StringBuilder base, Iterator<Object> iterator) {
+		return base.append(" and ").append(createCondition(part));
+	}
+
+	@Override
+	protected StringBuilder or(StringBuilder base, StringBuilder criteria) {
+		return new StringBuilder("(").append(base).append(") or (").append(criteria).append(")");
+	}
+
+	@Override
+	protected String complete(StringBuilder criteria, Sort sort) {
+		StringBuilder query = new StringBuilder();
+		if (criteria != null && criteria.length() > 0) {
+			query.append(" where ").append(criteria);
+		}
+		if (sort != null) {
+			String separator = " order by ";
+			for (Order order : sort) {
+				query.append(separator).append(toFieldPath(PropertyPath.from(order.getProperty(), entityType)))
+						.append(order.isAscending() ? " asc" : " desc");
+				separator = ", ";
+			}
+		}
+		return query.toString();
+	}
+
+	private String createCondition(Part part) {
+		String field = toFieldPath(part.getProperty());
+		boolean ignoreCase = shouldIgnoreCase(part);
+		if (ignoreCase) {
+			field = field + ".toLowerCase()";
+		}
+
+		String prefix = "";
+		String suffix = "";
+		String condition;
+		switch (part.getType()) {
+		case SIMPLE_PROPERTY:
+			condition = field + " = ?";
+			break;
+		case NEGATING_SIMPLE_PROPERTY:
+			condition = field + " <> ?";
+			break;
+		case LESS_THAN:
+		case BEFORE:
+			condition = field + " < ?";
+			break;
+		case LESS_THAN_EQUAL:
+			condition = field + " <= ?";
+			break;
+		case GREATER_THAN:
+		case AFTER:
+			condition = field + " > ?";
+			break;
+		case GREATER_THAN_EQUAL:
+			condition = field + " >= ?";
+			break;
+		case BETWEEN:
+			condition = "(" + field + " >= ? and " + field + " <= ?)";
+			break;
+		case IS_NULL:
+			condition = field + " is null";
+			break;
+		case IS_NOT_NULL:
+			condition = field + " is not null";
+			break;
+		case TRUE:
+			condition = field + " = true";
+			break;
+		case FALSE:
+			condition = field + " = false";
+			break;
+		case LIKE:
+			condition = field + " like ?";
+			break;
+		case NOT_LIKE:
+			condition = "not (" + field + " like ?)";
+			break;
+		case STARTING_WITH:
+			condition = field + " like ?";
+			suffix = "%";
+			break;
+		case ENDING_WITH:
+			condition = field + " like ?";
+			prefix = "%";
+			break;
+		case CONTAINING:
+			condition = field + " like ?";
+			prefix = "%";
+			suffix = "%";
+			break;
+		case REGEX:
+			condition = field + " matches ?";
+			break;
+		case IN:
+		case NOT_IN:
+			if (ignoreCase) {
+				throw new IllegalArgumentException("Ignoring case is not supported for " + part.getType());
+			}
+			condition = part.getType() == Part.Type.IN ? field + " in ?" : "not (" + field + " in ?)";
+			break;
+		default:
+			throw new IllegalArgumentException("Unsupported keyword " + part.getType());
+		}
+
+		ParameterBinding binding = !ignoreCase && prefix.isEmpty() && suffix.isEmpty() ? ParameterBinding.AS_IS
+				: new ParameterBinding(ignoreCase, prefix, suffix);
+		for (int i = 0; i < part.getNumberOfArguments(); i++) {
+			bindings.add(binding);
+		}
+		return condition;
+	}
+
+	private boolean shouldIgnoreCase(Part part) {
+		switch (part.shouldIgnoreCase()) {
+		case ALWAYS:
+			if (!String.class.equals(part.getProperty().getLeafProperty().getType())) {
+				throw new IllegalArgumentException("Unable to ignore case of " + part.getProperty().toDotPath()
+						+ ", it is not a String");
+			}
+			return true;
+		case WHEN_POSSIBLE:
+			return String.class.equals(part.getProperty().getLeafProperty().getType());
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * @return dotted path of document fields, following links of the traversed properties
+	 */
+	private String toFieldPath(PropertyPath path) {
+		return mappingContext.getPersistentPropertyPath(path).toDotPath(
+				new Converter<OrientDocumentPersistentProperty, String>() {
+					public String convert(OrientDocumentPersistentProperty source) {
+						return source.isIdProperty() ? RECORD_ID_FIELD : source.getFieldName();
+					}
+				});
+	}
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.repository.query;
+
+import java.lang.reflect.Method;
+
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.orientdb.document.core.mapping.FetchPlan;
+import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.query.QueryMethod;
+import org.springframework.util.StringUtils;
+
+/**
+ * OrientDB specific {@link QueryMethod}, aware of a {@link FetchPlan} declared on the method.
+ * 
+ * @author Matej Zachar
+ */
+public class OrientQueryMethod extends QueryMethod {
+
+	private final String fetchPlan;
+
+	public OrientQueryMethod(Method method, RepositoryMetadata metadata) {
+		super(method, metadata);
+		FetchPlan annotation = AnnotationUtils.findAnnotation(method, FetchPlan.class);
+		this.fetchPlan = annotation != null && StringUtils.hasText(annotation.value()) ? annotation.value() : null;
+	}
+
+	/**
+	 * @return fetch plan of the method, <code>null</code> when the one of the entity applies
+	 */
+	public String getFetchPlan() {
+		return fetchPlan;
+	}
+
+	/**
+	 * @return type of the entities the query selects
+	 */
+	public Class<?> getEntityType() {
+		return getEntityInformation().getJavaType();
+	}
+
+}
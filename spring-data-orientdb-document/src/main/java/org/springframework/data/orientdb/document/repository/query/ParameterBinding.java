@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.repository.query;
+
+/**
+ * How a method argument is turned into the value of its query placeholder, resolved once from the keyword of the
+ * derived query part.
+ * 
+ * @author Matej Zachar
+ */
+class ParameterBinding {
+
+	static final ParameterBinding AS_IS = new ParameterBinding(false, "", "");
+
+	private final boolean lowerCase;
+	private final String prefix;
+	private final String suffix;
+
+	ParameterBinding(boolean lowerCase, String prefix, String suffix) {
+		this.lowerCase = lowerCase;
+		this.prefix = prefix;
+		this.suffix = suffix;
+	}
+
+	Object bind(Object value) {
+		if (this == AS_IS || value == null) {
+			return value;
+		}
+		String text = prefix + value + suffix;
+		return lowerCase ? text.toLowerCase() : text;
+	}
+
+}
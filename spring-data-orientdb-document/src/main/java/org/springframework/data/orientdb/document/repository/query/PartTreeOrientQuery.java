@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.repository.query;
+
+import java.util.List;
+
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.orientdb.document.core.OrientDocumentOperations;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentEntity;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentProperty;
+import org.springframework.data.repository.query.Parameter;
+import org.springframework.data.repository.query.Parameters;
+import org.springframework.data.repository.query.QueryCreationException;
+import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.data.repository.query.parser.PartTree;
+
+/**
+ * {@link RepositoryQuery} derived from the name of the query method. The method name is parsed and translated into
+ * OrientDB SQL once, when the repository is created; an execution only binds the arguments to the placeholders and
+ * hands the query to {@link OrientDocumentOperations#find}.
+ * 
+ * @author Matej Zachar
+ */
+public class PartTreeOrientQuery implements RepositoryQuery {
+
+	private final OrientQueryMethod method;
+	private final OrientDocumentOperations operations;
+	private final OrientDocumentPersistentEntity<?> entity;
+	private final String criteria;
+	private final ParameterBinding[] bindings;
+	private final int[] parameterIndexes;
+	private final boolean collectionQuery;
+
+	public PartTreeOrientQuery(OrientQueryMethod method, OrientDocumentOperations operations,
+			MappingContext<? extends OrientDocumentPersistentEntity<?>, OrientDocumentPersistentProperty> mappingContext) {
+		this.method = method;
+		this.operations = operations;
+		this.entity = mappingContext.getPersistentEntity(method.getEntityType());
+		this.collectionQuery = method.isCollectionQuery();
+
+		Parameters parameters = method.getParameters();
+		if (parameters.hasSpecialParameter() || method.isPageQuery()) {
+			throw QueryCreationException.create(method, "Paging and dynamic sorting are not supported");
+		}
+
+		PartTree tree;
+		try {
+			tree = new PartTree(method.getName(), method.getEntityType());
+		} catch (RuntimeException e) {
+			throw QueryCreationException.create(method, e);
+		}
+		if (tree.isDistinct()) {
+			throw QueryCreationException.create(method, "Distinct queries are not supported");
+		}
+
+		OrientQueryCreator creator;
+		try {
+			creator = new OrientQueryCreator(tree, method.getEntityType(), mappingContext);
+			this.criteria = creator.createQuery();
+		} catch (RuntimeException e) {
+			throw QueryCreationException.create(method, e);
+		}
+
+		List<ParameterBinding> bindingList = creator.getBindings();
+		Parameters bindable = parameters.getBindableParameters();
+		if (bindingList.size() != bindable.getNumberOfParameters()) {
+			throw QueryCreationException.create(method, "Method expects " + bindingList.size()
+					+ " arguments but declares " + bindable.getNumberOfParameters());
+		}
+		this.bindings = bindingList.toArray(new ParameterBinding[bindingList.size()]);
+		this.parameterIndexes = new int[bindings.length];
+		int i = 0;
+		for (Parameter parameter : bindable) {
+			parameterIndexes[i++] = parameter.getIndex();
+		}
+	}
+
+	public Object execute(Object[] parameters) {
+		Object[] values = new Object[bindings.length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = bindings[i].bind(parameters[parameterIndexes[i]]);
+		}
+
+		// the class name is resolved on every call, it may be an expression
+		String sql = "select from " + entity.getCollection() + criteria;
+		List<?> result = operations.find(sql, method.getEntityType(), method.getFetchPlan(), values);
+		if (collectionQuery) {
+			return result;
+		}
+		if (result.size() > 1) {
+			throw new IncorrectResultSizeDataAccessException(1, result.size());
+		}
+		return result.isEmpty() ? null : result.get(0);
+	}
+
+	public OrientQueryMethod getQueryMethod() {
+		return method;
+	}
+
+}
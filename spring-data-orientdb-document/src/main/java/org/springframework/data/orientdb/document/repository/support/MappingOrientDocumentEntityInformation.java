@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.repository.support;
+
+import java.io.Serializable;
+
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentEntity;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentProperty;
+import org.springframework.data.repository.core.support.AbstractEntityInformation;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Entity information backed by the {@link OrientDocumentPersistentEntity} of the mapping context. The id field is
+ * made accessible once, reading it needs no bean wrapper.
+ * 
+ * @author Matej Zachar
+ */
+public class MappingOrientDocumentEntityInformation<T, ID extends Serializable> extends AbstractEntityInformation<T, ID> {
+
+	private final OrientDocumentPersistentEntity<T> entity;
+	private final OrientDocumentPersistentProperty idProperty;
+
+	public MappingOrientDocumentEntityInformation(OrientDocumentPersistentEntity<T> entity) {
+		super(entity.getType());
+		this.entity = entity;
+		this.idProperty = entity.getIdProperty();
+		if (idProperty != null) {
+			ReflectionUtils.makeAccessible(idProperty.getField());
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	public ID getId(T entity) {
+		if (idProperty == null) {
+			return null;
+		}
+		return (ID) ReflectionUtils.getField(idProperty.getField(), entity);
+	}
+
+	@SuppressWarnings("unchecked")
+	public Class<ID> getIdType() {
+		return (Class<ID>) (idProperty != null ? idProperty.getType() : String.class);
+	}
+
+	/**
+	 * @return name of the OrientDB class the entities are stored in
+	 */
+	public String getCollectionName() {
+		return entity.getCollection();
+	}
+
+}
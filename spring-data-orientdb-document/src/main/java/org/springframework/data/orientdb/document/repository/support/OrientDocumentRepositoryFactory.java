@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.repository.support;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mapping.model.MappingException;
+import org.springframework.data.orientdb.document.core.OrientDocumentOperations;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentEntity;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentPersistentProperty;
+import org.springframework.data.orientdb.document.repository.query.OrientQueryMethod;
+import org.springframework.data.orientdb.document.repository.query.PartTreeOrientQuery;
+import org.springframework.data.repository.core.NamedQueries;
+import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+import org.springframework.data.repository.query.QueryLookupStrategy;
+import org.springframework.data.repository.query.QueryLookupStrategy.Key;
+import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.util.Assert;
+
+/**
+ * Factory creating {@link org.springframework.data.orientdb.document.repository.OrientDocumentRepository}
+ * instances. Query methods are derived from their names and compiled when the repository is created, see
+ * {@link PartTreeOrientQuery}.
+ * 
+ * <pre>
+ * OrientDocumentRepositoryFactory factory = new OrientDocumentRepositoryFactory(template);
+ * AnimalRepository repository = factory.getRepository(AnimalRepository.class);
+ * </pre>
+ * 
+ * @author Matej Zachar
+ */
+public class OrientDocumentRepositoryFactory extends RepositoryFactorySupport {
+
+	private final OrientDocumentOperations operations;
+	private final MappingContext<? extends OrientDocumentPersistentEntity<?>, OrientDocumentPersistentProperty> mappingContext;
+
+	public OrientDocumentRepositoryFactory(OrientDocumentOperations operations) {
+		Assert.notNull(operations, "Operations must not be null");
+		this.operations = operations;
+		this.mappingContext = operations.getConverter().getMappingContext();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T, ID extends Serializable> MappingOrientDocumentEntityInformation<T, ID> getEntityInformation(
+			Class<T> domainClass) {
+		OrientDocumentPersistentEntity<?> entity = mappingContext.getPersistentEntity(domainClass);
+		if (entity == null) {
+			throw new MappingException("Could not lookup mapping metadata for domain class " + domainClass.getName());
+		}
+		return new MappingOrientDocumentEntityInformation<T, ID>((OrientDocumentPersistentEntity<T>) entity);
+	}
+
+	@Override
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	protected Object getTargetRepository(RepositoryMetadata metadata) {
+		MappingOrientDocumentEntityInformation<?, Serializable> entityInformation = getEntityInformation(metadata
+				.getDomainType());
+		return new SimpleOrientDocumentRepository(entityInformation, operations);
+	}
+
+	@Override
+	protected Class<?> getRepositoryBaseClass(RepositoryMetadata metadata) {
+		return SimpleOrientDocumentRepository.class;
+	}
+
+	@Override
+	protected QueryLookupStrategy getQueryLookupStrategy(Key key) {
+		return new PartTreeQueryLookupStrategy();
+	}
+
+	/**
+	 * Derives every query from the method name, there are no declared queries yet.
+	 */
+	private class PartTreeQueryLookupStrategy implements QueryLookupStrategy {
+
+		public RepositoryQuery resolveQuery(Method method, RepositoryMetadata metadata, NamedQueries namedQueries) {
+			return new PartTreeOrientQuery(new OrientQueryMethod(method, metadata), operations, mappingContext);
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.repository.support;
+
+import java.io.Serializable;
+
+import org.springframework.data.orientdb.document.core.OrientDocumentOperations;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+import org.springframework.util.Assert;
+
+/**
+ * {@link org.springframework.beans.factory.FactoryBean} exposing an OrientDB document repository.
+ * 
+ * <pre>
+ * &lt;bean class="org.springframework.data.orientdb.document.repository.support.OrientDocumentRepositoryFactoryBean"&gt;
+ * 	&lt;property name="repositoryInterface" value="com.example.AnimalRepository" /&gt;
+ * 	&lt;property name="orientDocumentOperations" ref="orientDocumentOperations" /&gt;
+ * &lt;/bean&gt;
+ * </pre>
+ * 
+ * @author Matej Zachar
+ */
+public class OrientDocumentRepositoryFactoryBean<T extends Repository<S, ID>, S, ID extends Serializable> extends
+		RepositoryFactoryBeanSupport<T, S, ID> {
+
+	private OrientDocumentOperations operations;
+
+	public void setOrientDocumentOperations(OrientDocumentOperations operations) {
+		this.operations = operations;
+	}
+
+	@Override
+	protected RepositoryFactorySupport createRepositoryFactory() {
+		return new OrientDocumentRepositoryFactory(operations);
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		Assert.notNull(operations, "OrientDocumentOperations must not be null");
+		super.afterPropertiesSet();
+	}
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2012 by the original author(s).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.repository.support;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.orientdb.document.core.OrientDocumentOperations;
+import org.springframework.data.orientdb.document.repository.OrientDocumentRepository;
+import org.springframework.util.Assert;
+
+/**
+ * Repository base implementation delegating to {@link OrientDocumentOperations}.
+ * 
+ * @author Matej Zachar
+ */
+public class SimpleOrientDocumentRepository<T, ID extends Serializable> implements OrientDocumentRepository<T, ID> {
+
+	private final MappingOrientDocumentEntityInformation<T, ID> entityInformation;
+	private final OrientDocumentOperations operations;
+
+	public SimpleOrientDocumentRepository(MappingOrientDocumentEntityInformation<T, ID> entityInformation,
+			OrientDocumentOperations operations) {
+		Assert.notNull(entityInformation, "Entity information must not be null");
+		Assert.notNull(operations, "Operations must not be null");
+		this.entityInformation = entityInformation;
+		this.operations = operations;
+	}
+
+	public <S extends T> S save(S entity) {
+		Assert.notNull(entity, "Entity must not be null");
+		operations.save(entity);
+		return entity;
+	}
+
+	public <S extends T> List<S> save(Iterable<S> entities) {
+		Assert.notNull(entities, "Entities must not be null");
+		List<S> result = new ArrayList<S>();
+		for (S entity : entities) {
+			result.add(save(entity));
+		}
+		return result;
+	}
+
+	public T findOne(ID id) {
+		Assert.notNull(id, "Id must not be null");
+		return operations.findById(id, entityInformation.getJavaType());
+	}
+
+	public boolean exists(ID id) {
+		return findOne(id) != null;
+	}
+
+	public List<T> findAll() {
+		return operations.findAll(entityInformation.getJavaType());
+	}
+
+	public Iterable<T> findAll(Iterable<ID> ids) {
+		List<T> result = new ArrayList<T>();
+		for (ID id : ids) {
+			T entity = findOne(id);
+			if (entity != null) {
+				result.add(entity);
+			}
+		}
+		return result;
+	}
+
+	public long count() {
+		return operations.count(entityInformation.getJavaType());
+	}
+
+	public void delete(ID id) {
+		T entity = findOne(id);
+		if (entity != null) {
+			delete(entity);
+		}
+	}
+
+	public void delete(T entity) {
+		Assert.notNull(entity, "Entity must not be null");
+		operations.remove(entity);
+	}
+
+	public void delete(Iterable<? extends T> entities) {
+		Assert.notNull(entities, "Entities must not be null");
+		for (T entity : entities) {
+			delete(entity);
+		}
+	}
+
+	/**
+	 * Removes the entities one by one, so that cached copies are invalidated as well.
+	 */
+	public void deleteAll() {
+		delete(findAll());
+	}
+
+}
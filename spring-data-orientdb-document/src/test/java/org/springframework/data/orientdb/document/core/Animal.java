@@ -16,6 +16,7 @@
 
 package org.springframework.data.orientdb.document.core;
 
+import org.springframework.data.orientdb.document.core.mapping.CompoundIndex;
 import org.springframework.data.orientdb.document.core.mapping.Document;
 
 /**
@@ -25,7 +26,9 @@ import org.springframework.data.orientdb.document.core.mapping.Document;
  */
 
 @Document
+@CompoundIndex(properties = { "name", "description" })
 public class Animal {
+	private String id;
 	private String name;
 	private String description;
 	
@@ -36,6 +39,9 @@ public class Animal {
 	
 	public Animal () { }
 	
+	public String getId() {
+		return id;
+	}
 	public String getName() {
 		return name;
 	}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+
+/**
+ * 
+ * @author Matej Zachar
+ *
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("OrientDocumentTemplateTest-context.xml")
+public class AsyncOrientDocumentTemplateTest {
+
+	private ODatabaseDocumentTx db;
+
+	@Autowired
+	private OrientDocumentOperations orientDocumentOperations;
+
+	@Autowired
+	private OrientDocumentDbManager orientDbManager;
+
+	private AsyncOrientDocumentTemplate async;
+
+	@Before
+	public void setUp() throws Exception {
+		db = new ODatabaseDocumentTx("memory:testDB");
+		if (db.exists()) {
+			db.open("admin", "admin");
+			db.drop();
+		}
+		db.create();
+
+		async = new AsyncOrientDocumentTemplate(orientDocumentOperations, orientDbManager);
+		async.setThreadCount(2);
+		async.afterPropertiesSet();
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		async.destroy();
+		if (db.exists())
+			db.drop();
+	}
+
+	@Test
+	public void testOperationsCompleteOnWorkers() throws Exception {
+		Animal pig = async.save(new Animal("PIG", "EGG STEALER")).get();
+		assertNotNull(pig.getId());
+
+		final CountDownLatch called = new CountDownLatch(1);
+		final AtomicReference<Animal> found = new AtomicReference<Animal>();
+		async.findById(pig.getId(), Animal.class).addCallback(new OperationCallback<Animal>() {
+			public void onSuccess(Animal result) {
+				found.set(result);
+				called.countDown();
+			}
+
+			public void onFailure(Throwable failure) {
+				called.countDown();
+			}
+		});
+		assertTrue(called.await(10, TimeUnit.SECONDS));
+		assertEquals("PIG", found.get().getName());
+
+		List<Animal> animals = async.findAll(Animal.class).get();
+		assertEquals(1, animals.size());
+		assertEquals(Long.valueOf(1), async.count(Animal.class).get());
+		assertEquals(4, async.getCompletedCount());
+	}
+
+	@Test
+	public void testFullQueueRejects() throws Exception {
+		final CountDownLatch release = new CountDownLatch(1);
+		OrientDocumentOperations blocking = mock(OrientDocumentOperations.class);
+		when(blocking.count(Animal.class)).thenAnswer(new Answer<Long>() {
+			public Long answer(InvocationOnMock invocation) throws Throwable {
+				release.await();
+				return 0L;
+			}
+		});
+
+		AsyncOrientDocumentTemplate bounded = new AsyncOrientDocumentTemplate(blocking,
+				mock(OrientDocumentDbManager.class));
+		bounded.setThreadCount(1);
+		bounded.setQueueCapacity(1);
+		bounded.afterPropertiesSet();
+		try {
+			OperationFuture<Long> running = bounded.count(Animal.class);
+			OperationFuture<Long> queued = bounded.count(Animal.class);
+			try {
+				bounded.count(Animal.class);
+				fail("Operation exceeding the queue capacity must be rejected");
+			} catch (TaskRejectedException e) {
+				// expected
+			}
+			assertEquals(1, bounded.getRejectedCount());
+			assertEquals(2, bounded.getSubmittedCount());
+
+			release.countDown();
+			assertEquals(Long.valueOf(0), running.get());
+			assertEquals(Long.valueOf(0), queued.get());
+		} finally {
+			bounded.destroy();
+		}
+	}
+
+}
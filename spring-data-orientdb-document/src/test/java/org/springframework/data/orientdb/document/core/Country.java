@@ -0,0 +1,46 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.document.core;
+
+import org.springframework.data.orientdb.document.core.mapping.Document;
+import org.springframework.data.orientdb.document.core.mapping.Indexed;
+
+/**
+ * 
+ * @author Matej Zachar
+ *
+ */
+
+@Document(cacheable = true)
+public class Country {
+	private String id;
+	@Indexed(unique = true)
+	private String code;
+	
+	public Country (String code) {
+		this.code = code;
+	}
+	
+	public Country () { }
+	
+	public String getId() {
+		return id;
+	}
+	public String getCode() {
+		return code;
+	}
+}
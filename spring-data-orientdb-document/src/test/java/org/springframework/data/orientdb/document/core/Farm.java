@@ -0,0 +1,59 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.document.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.orientdb.document.core.mapping.Document;
+import org.springframework.data.orientdb.document.core.mapping.Link;
+
+/**
+ * 
+ * @author Matej Zachar
+ *
+ */
+
+@Document
+public class Farm {
+	private String id;
+	private String name;
+	@Link
+	private List<Animal> animals = new ArrayList<Animal>();
+	@Link(lazy = true)
+	private Country country;
+	
+	public Farm (String name, Country country) {
+		this.name = name;
+		this.country = country;
+	}
+	
+	public Farm () { }
+	
+	public String getId() {
+		return id;
+	}
+	public String getName() {
+		return name;
+	}
+	public List<Animal> getAnimals() {
+		return animals;
+	}
+	public Country getCountry() {
+		return country;
+	}
+}
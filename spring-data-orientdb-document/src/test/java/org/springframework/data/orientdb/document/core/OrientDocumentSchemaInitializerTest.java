@@ -0,0 +1,157 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.InvalidDataAccessResourceUsageException;
+import org.springframework.data.orientdb.document.core.mapping.OrientDocumentMappingContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+
+/**
+ * 
+ * @author Matej Zachar
+ *
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("OrientDocumentTemplateTest-context.xml")
+public class OrientDocumentSchemaInitializerTest {
+
+	private ODatabaseDocumentTx db;
+
+	@Autowired
+	private OrientDocumentOperations orientDocumentOperations;
+
+	@Autowired
+	private OrientDocumentDbManager orientDbManager;
+
+	@Autowired
+	private OrientDocumentMappingContext mappingContext;
+
+	private OrientDocumentSchemaInitializer initializer;
+
+	@Before
+	public void setUp() throws Exception {
+		db = new ODatabaseDocumentTx("memory:testDB");
+		if (db.exists()) {
+			db.open("admin", "admin");
+			db.drop();
+		}
+		db.create();
+
+		initializer = new OrientDocumentSchemaInitializer(orientDbManager, mappingContext);
+		initializer.setEntityClasses(Arrays.<Class<?>> asList(Animal.class, Country.class, Farm.class));
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if (db.exists()) {
+			// memory storage can not save index pages any more once dropping started
+			ODatabaseRecordThreadLocal.INSTANCE.set(db);
+			db.getMetadata().getIndexManager().flush();
+			db.drop();
+		}
+	}
+
+	@Test
+	public void testCreatesClassesPropertiesAndIndexes() {
+		SchemaReport report = initializer.initialize();
+
+		assertTrue(report.getCreatedClasses().containsAll(Arrays.asList("Animal", "Country", "Farm")));
+		assertFalse(report.hasFailures());
+		assertEquals(2, report.getIndexBuilds().size());
+
+		db.getMetadata().getSchema().reload();
+		OClass animal = db.getMetadata().getSchema().getClass("Animal");
+		assertEquals(OType.STRING, animal.getProperty("name").getType());
+		assertNotNull(animal.getClassIndex("Animal.name_description"));
+		assertNotNull(db.getMetadata().getSchema().getClass("Country").getClassIndex("Country.code"));
+		OClass farm = db.getMetadata().getSchema().getClass("Farm");
+		assertEquals(OType.LINKLIST, farm.getProperty("animals").getType());
+		assertEquals(animal, farm.getProperty("animals").getLinkedClass());
+
+		// typed documents are still written and read the same way
+		orientDocumentOperations.save(new Animal("PIG", "EGG STEALER"));
+		assertEquals("PIG", orientDocumentOperations.findAll(Animal.class).get(0).getName());
+	}
+
+	@Test
+	public void testSecondRunKeepsExistingSchema() {
+		initializer.initialize();
+		SchemaReport report = initializer.initialize();
+
+		assertTrue(report.getCreatedClasses().isEmpty());
+		assertEquals(0, report.getCreatedPropertyCount());
+		for (SchemaReport.IndexBuild indexBuild : report.getIndexBuilds()) {
+			assertTrue(indexBuild.isExisting());
+		}
+	}
+
+	@Test
+	public void testKeepsBindingOfTheCaller() {
+		ODatabaseRecordThreadLocal.INSTANCE.set(db);
+
+		initializer.initialize();
+
+		assertSame(db, ODatabaseRecordThreadLocal.INSTANCE.getIfDefined());
+	}
+
+	@Test
+	public void testIndexBuildsDoNotLeaveWorkersBound() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			initializer.setIndexExecutor(executor);
+			initializer.initialize();
+
+			assertFalse(executor.submit(new Callable<Boolean>() {
+				public Boolean call() {
+					return ODatabaseRecordThreadLocal.INSTANCE.isDefined();
+				}
+			}).get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test(expected = InvalidDataAccessResourceUsageException.class)
+	public void testIndexViolatedByExistingDataFails() {
+		orientDocumentOperations.save(new Country("CZ"));
+		orientDocumentOperations.save(new Country("CZ"));
+
+		initializer.afterPropertiesSet();
+	}
+
+}
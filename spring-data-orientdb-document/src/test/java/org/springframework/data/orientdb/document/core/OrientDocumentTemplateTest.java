@@ -16,18 +16,38 @@
 
 package org.springframework.data.orientdb.document.core;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.orientdb.document.core.convert.MappingOrientDocumentConverter;
+import org.springframework.data.orientdb.support.MetricsOrientInstrumentation;
+import org.springframework.data.orientdb.support.OrientOperation;
+import org.springframework.data.orientdb.transaction.ODatabaseHolder;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
 import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORecordId;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 
 /**
@@ -45,6 +65,12 @@ public class OrientDocumentTemplateTest {
 	@Autowired
 	private OrientDocumentOperations orientDocumentOperations;
 	
+	@Autowired
+	private OrientDocumentDbManager orientDbManager;
+	
+	@Autowired
+	private MappingOrientDocumentConverter orientDocumentConverter;
+	
 	@Before
 	public void setUp() throws Exception {
 		db = new ODatabaseDocumentTx("memory:testDB");
@@ -57,6 +83,7 @@ public class OrientDocumentTemplateTest {
 
 	@After
 	public void tearDown() throws Exception {
+		orientDbManager.releaseCurrentDatabase();
 		if (db.exists())
 			db.drop();
 	}
@@ -73,4 +100,380 @@ public class OrientDocumentTemplateTest {
 		}
 	}
 
+	@Test
+	public void testInsertAllInChunks() {
+		List<Animal> animals = new ArrayList<Animal>();
+		for (int i = 0; i < 25; i++) {
+			animals.add(new Animal("ANIMAL" + i, "DESCRIPTION" + i));
+		}
+		
+		BatchInsertResult result = orientDocumentOperations.insertAll(animals, 10);
+		
+		assertFalse(result.hasFailures());
+		assertEquals(3, result.getChunks().size());
+		assertEquals(10, result.getChunks().get(0).getSize());
+		assertEquals(20, result.getChunks().get(2).getFirstIndex());
+		assertEquals(5, result.getChunks().get(2).getSize());
+		assertEquals(25, result.getInsertedCount());
+		assertEquals(25, db.countClass("Animal"));
+	}
+
+	@Test
+	public void testStreamReadsAllDocuments() {
+		for (int i = 0; i < 25; i++) {
+			orientDocumentOperations.save(new Animal("ANIMAL" + i, "DESCRIPTION" + i));
+		}
+		
+		CloseableIterator<Animal> animals = orientDocumentOperations.stream(Animal.class, 10);
+		int count = 0;
+		try {
+			while (animals.hasNext()) {
+				assertTrue(animals.next().getName().startsWith("ANIMAL"));
+				count++;
+			}
+		} finally {
+			animals.close();
+		}
+		
+		assertEquals(25, count);
+		assertFalse(animals.hasNext());
+	}
+
+	@Test
+	public void testStreamKeepsBindingOfTheCaller() {
+		orientDocumentOperations.save(new Animal("PIG", "EGG STEALER"));
+		ODatabaseRecordThreadLocal.INSTANCE.set(db);
+		
+		CloseableIterator<Animal> animals = orientDocumentOperations.stream(Animal.class);
+		try {
+			assertSame(db, ODatabaseRecordThreadLocal.INSTANCE.getIfDefined());
+			assertTrue(animals.hasNext());
+			assertSame(db, ODatabaseRecordThreadLocal.INSTANCE.getIfDefined());
+		} finally {
+			animals.close();
+		}
+	}
+
+	@Test
+	public void testFindAllAndStreamSeeUncommittedChanges() {
+		orientDocumentOperations.save(new Animal("PIG", "EGG STEALER"));
+		
+		ODatabaseDocumentTx current = orientDbManager.getCurrentDatabase();
+		current.begin();
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+		try {
+			orientDocumentOperations.save(new Animal("COW", "MILK"));
+			assertEquals(2, orientDocumentOperations.findAll(Animal.class).size());
+			
+			CloseableIterator<Animal> animals = orientDocumentOperations.stream(Animal.class, 1);
+			int count = 0;
+			while (animals.hasNext()) {
+				animals.next();
+				count++;
+			}
+			assertEquals(2, count);
+			assertFalse(current.isClosed());
+		} finally {
+			TransactionSynchronizationManager.setActualTransactionActive(false);
+			current.rollback();
+		}
+		
+		assertEquals(1, orientDocumentOperations.findAll(Animal.class).size());
+	}
+
+	@Test
+	public void testFindByIdWithUnknownRecordId() {
+		orientDocumentOperations.save(new Animal("PIG", "EGG STEALER"));
+		
+		assertNull(orientDocumentOperations.findById("#" + db.getClusterIdByName("animal") + ":1000", Animal.class));
+	}
+
+	@Test
+	public void testFindByRecordId() {
+		orientDocumentOperations.save(new Animal("PIG", "EGG STEALER"));
+		ODocument saved = db.browseClass("Animal").next();
+		
+		Animal pig = orientDocumentOperations.findById(saved.getIdentity().toString(), Animal.class);
+		
+		assertEquals("PIG", pig.getName());
+		assertEquals("EGG STEALER", pig.getDescription());
+	}
+
+	@Test(expected = InvalidDataAccessApiUsageException.class)
+	public void testFindByIdRejectsOtherIds() {
+		orientDocumentOperations.findById("PIG", Animal.class);
+	}
+
+	@Test
+	public void testFindByIdUsesIdentityMapInTransaction() {
+		orientDocumentOperations.save(new Animal("PIG", "EGG STEALER"));
+		String rid = db.browseClass("Animal").next().getIdentity().toString();
+		
+		// bind the database as a transaction would do
+		ODatabaseHolder<ODatabaseDocumentTx> dbHolder = new ODatabaseHolder<ODatabaseDocumentTx>(orientDbManager.getCurrentDatabase());
+		dbHolder.setSynchronizedWithTransaction(true);
+		TransactionSynchronizationManager.bindResource(this, dbHolder);
+		try {
+			Animal pig = orientDocumentOperations.findById(rid, Animal.class);
+			assertSame(pig, orientDocumentOperations.findById(rid, Animal.class));
+		} finally {
+			TransactionSynchronizationManager.unbindResource(this);
+		}
+		
+		assertNotSame(orientDocumentOperations.findById(rid, Animal.class), orientDocumentOperations.findById(rid, Animal.class));
+	}
+
+	@Test
+	public void testDirtyCheckingSaveUpdatesLoadedEntity() {
+		OrientDocumentTemplate template = (OrientDocumentTemplate) orientDocumentOperations;
+		template.save(new Animal("PIG", "EGG STEALER"));
+		ODocument saved = db.browseClass("Animal").next();
+		String rid = saved.getIdentity().toString();
+		int version = saved.getVersion();
+		
+		// bind the database as a transaction would do
+		ODatabaseHolder<ODatabaseDocumentTx> dbHolder = new ODatabaseHolder<ODatabaseDocumentTx>(orientDbManager.getCurrentDatabase());
+		dbHolder.setSynchronizedWithTransaction(true);
+		TransactionSynchronizationManager.bindResource(this, dbHolder);
+		template.setDirtyChecking(true);
+		try {
+			Animal pig = template.findById(rid, Animal.class);
+			assertEquals(rid, pig.getId());
+			
+			pig.setDescription("TRUFFLE HUNTER");
+			template.save(pig);
+			template.save(pig); // nothing changed, nothing written
+		} finally {
+			template.setDirtyChecking(false);
+			TransactionSynchronizationManager.unbindResource(this);
+		}
+		
+		assertEquals(1, db.countClass("Animal"));
+		db.getLevel1Cache().invalidate();
+		ODocument stored = db.load(new ORecordId(rid));
+		assertEquals("PIG", stored.field("name"));
+		assertEquals("TRUFFLE HUNTER", stored.field("description"));
+		assertEquals(version + 1, stored.getVersion());
+	}
+
+	@Test
+	public void testFindByIdUsesEntityCache() {
+		OrientDocumentTemplate template = (OrientDocumentTemplate) orientDocumentOperations;
+		template.save(new Country("CZ"));
+		ODocument saved = db.browseClass("Country").next();
+		String rid = saved.getIdentity().toString();
+		
+		EntityCache cache = new EntityCache();
+		template.setEntityCache(cache);
+		template.setCacheVersionCheck(true);
+		try {
+			assertEquals("CZ", template.findById(rid, Country.class).getCode());
+			assertEquals("CZ", template.findById(rid, Country.class).getCode());
+			assertEquals(1, cache.getMissCount());
+			assertEquals(1, cache.getHitCount());
+			
+			// changed behind the back of the template
+			saved.field("code", "SK");
+			saved.save();
+			assertEquals("SK", template.findById(rid, Country.class).getCode());
+			assertEquals(1, cache.getStaleCount());
+			
+			template.remove(template.findById(rid, Country.class));
+			assertEquals(0, cache.size());
+			assertNull(template.findById(rid, Country.class));
+		} finally {
+			template.setEntityCache(null);
+			template.setCacheVersionCheck(false);
+		}
+	}
+
+	@Test
+	public void testLinksAreResolved() {
+		Country country = new Country("CZ");
+		orientDocumentOperations.save(country);
+		Animal pig = new Animal("PIG", "EGG STEALER");
+		orientDocumentOperations.save(pig);
+		Animal cow = new Animal("COW", "MILK GIVER");
+		orientDocumentOperations.save(cow);
+		
+		Farm farm = new Farm("OLD MCDONALD", country);
+		farm.getAnimals().add(pig);
+		farm.getAnimals().add(cow);
+		orientDocumentOperations.save(farm);
+		Farm other = new Farm("ANIMAL FARM", country);
+		other.getAnimals().add(pig);
+		orientDocumentOperations.save(other);
+		
+		Farm loaded = orientDocumentOperations.findById(farm.getId(), Farm.class);
+		assertEquals(2, loaded.getAnimals().size());
+		assertEquals("PIG", loaded.getAnimals().get(0).getName());
+		assertEquals("COW", loaded.getAnimals().get(1).getName());
+		assertFalse(Country.class.equals(loaded.getCountry().getClass()));
+		assertEquals("CZ", loaded.getCountry().getCode());
+		
+		List<Farm> farms = orientDocumentOperations.findPage(Farm.class, 10).getContent();
+		assertEquals(2, farms.size());
+		// read together, the shared animal is loaded once
+		assertSame(farms.get(0).getAnimals().get(0), farms.get(1).getAnimals().get(0));
+		
+		// the lazy proxy is written back without being resolved
+		Farm resaved = farms.get(1);
+		orientDocumentOperations.save(resaved);
+		db.getLevel1Cache().invalidate();
+		ODocument stored = db.load(new ORecordId(resaved.getId()));
+		assertEquals(country.getId(), ((OIdentifiable) stored.field("country")).getIdentity().toString());
+		List<OIdentifiable> storedAnimals = stored.field("animals");
+		assertEquals(1, storedAnimals.size());
+		assertEquals(pig.getId(), storedAnimals.get(0).getIdentity().toString());
+		
+		Farm reloaded = orientDocumentOperations.findById(resaved.getId(), Farm.class);
+		assertEquals("ANIMAL FARM", reloaded.getName());
+		assertEquals("PIG", reloaded.getAnimals().get(0).getName());
+		assertEquals("CZ", reloaded.getCountry().getCode());
+	}
+
+	@Test
+	public void testFindWithFetchPlan() {
+		Animal pig = new Animal("PIG", "EGG STEALER");
+		orientDocumentOperations.save(pig);
+		Farm farm = new Farm("OLD MCDONALD", null);
+		farm.getAnimals().add(pig);
+		orientDocumentOperations.save(farm);
+		
+		Farm loaded = orientDocumentOperations.findById(farm.getId(), Farm.class, "animals:1");
+		assertEquals(1, loaded.getAnimals().size());
+		assertEquals("PIG", loaded.getAnimals().get(0).getName());
+		
+		List<Farm> farms = orientDocumentOperations.findAll(Farm.class, "*:-1");
+		assertEquals(1, farms.size());
+		assertEquals("PIG", farms.get(0).getAnimals().get(0).getName());
+	}
+
+	@Test
+	public void testConversionIsInstrumentedPerEntity() {
+		MetricsOrientInstrumentation instrumentation = new MetricsOrientInstrumentation();
+		orientDocumentConverter.setInstrumentation(instrumentation);
+		try {
+			Animal pig = new Animal("PIG", "EGG STEALER");
+			orientDocumentOperations.save(pig);
+			orientDocumentOperations.save(new Animal("COW", "MILK"));
+			assertEquals(2, instrumentation.getMetrics(OrientOperation.WRITE, Animal.class).getCount());
+			
+			instrumentation.reset();
+			assertEquals(2, orientDocumentOperations.findAll(Animal.class).size());
+			assertEquals(2, instrumentation.getMetrics(OrientOperation.READ, Animal.class).getCount());
+			
+			assertEquals("PIG", orientDocumentOperations.findById(pig.getId(), Animal.class).getName());
+			assertEquals(3, instrumentation.getMetrics(OrientOperation.READ, Animal.class).getCount());
+			assertEquals(0, instrumentation.getMetrics(OrientOperation.READ, Animal.class).getFailedCount());
+		} finally {
+			orientDocumentConverter.setInstrumentation(null);
+		}
+	}
+
+	@Test
+	public void testFindPageWalksAllRecords() {
+		for (int i = 0; i < 25; i++) {
+			orientDocumentOperations.save(new Animal("ANIMAL" + i, "DESCRIPTION" + i));
+		}
+		
+		List<String> names = new ArrayList<String>();
+		KeysetPage<Animal> page = orientDocumentOperations.findPage(Animal.class, 10);
+		int pages = 1;
+		names.addAll(namesOf(page.getContent()));
+		while (page.hasNext()) {
+			page = orientDocumentOperations.findPage(Animal.class, page.getContinuationToken(), 10);
+			names.addAll(namesOf(page.getContent()));
+			pages++;
+		}
+		
+		assertEquals(3, pages);
+		assertEquals(25, names.size());
+		assertEquals("ANIMAL0", names.get(0));
+		assertEquals("ANIMAL24", names.get(24));
+	}
+
+	@Test
+	public void testFindPageOfExactSize() {
+		for (int i = 0; i < 10; i++) {
+			orientDocumentOperations.save(new Animal("ANIMAL" + i, "DESCRIPTION" + i));
+		}
+		
+		KeysetPage<Animal> page = orientDocumentOperations.findPage(Animal.class, 10);
+		
+		assertEquals(10, page.getContent().size());
+		assertFalse(page.hasNext());
+	}
+
+	@Test(expected = InvalidDataAccessApiUsageException.class)
+	public void testFindPageWithForeignToken() {
+		orientDocumentOperations.findPage(Animal.class, KeysetPage.encodeToken("Plant", new ORecordId("#9:1")), 10);
+	}
+
+	@Test
+	public void testFindAllParallelInOrder() {
+		for (int i = 0; i < 25; i++) {
+			orientDocumentOperations.save(new Animal("ANIMAL" + i, "DESCRIPTION" + i));
+		}
+		
+		OrientDocumentTemplate template = (OrientDocumentTemplate) orientDocumentOperations;
+		template.setScanSplitSize(4);
+		try {
+			List<String> names = namesOf(template.findAllParallel(Animal.class, true));
+			
+			assertEquals(25, names.size());
+			for (int i = 0; i < 25; i++) {
+				assertEquals("ANIMAL" + i, names.get(i));
+			}
+			assertEquals(25, template.findAllParallel(Animal.class, false).size());
+		} finally {
+			template.setScanSplitSize(OrientDocumentTemplate.DEFAULT_SCAN_SPLIT_SIZE);
+		}
+	}
+
+	@Test
+	public void testFindAllParallelDoesNotLeaveWorkersBound() throws Exception {
+		orientDocumentOperations.save(new Animal("PIG", "EGG STEALER"));
+		
+		OrientDocumentTemplate template = (OrientDocumentTemplate) orientDocumentOperations;
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		template.setScanExecutor(executor);
+		try {
+			assertEquals(1, template.findAllParallel(Animal.class, true).size());
+			
+			assertFalse(executor.submit(new Callable<Boolean>() {
+				public Boolean call() {
+					return ODatabaseRecordThreadLocal.INSTANCE.isDefined();
+				}
+			}).get());
+		} finally {
+			template.setScanExecutor(null);
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testFindAllProjection() {
+		orientDocumentOperations.save(new Animal("PIG", "EGG STEALER"));
+		
+		List<AnimalName> names = orientDocumentOperations.findAll(Animal.class, AnimalName.class);
+		
+		assertEquals(1, names.size());
+		assertEquals("PIG", names.get(0).name);
+		assertEquals("#" + db.getClusterIdByName("animal") + ":0", names.get(0).id);
+	}
+
+	static class AnimalName {
+		String id;
+		String name;
+	}
+
+	private static List<String> namesOf(List<Animal> animals) {
+		List<String> names = new ArrayList<String>();
+		for (Animal animal : animals) {
+			names.add(animal.getName());
+		}
+		return names;
+	}
+
 }
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.orientdb.document.core.convert.OrientDocumentConverter;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+
+/**
+ * 
+ * @author Matej Zachar
+ *
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("OrientDocumentTemplateTest-context.xml")
+public class ReactiveOrientDocumentTemplateTest {
+
+	private ODatabaseDocumentTx db;
+
+	@Autowired
+	private OrientDocumentOperations orientDocumentOperations;
+
+	@Autowired
+	private OrientDocumentDbManager orientDbManager;
+
+	@Autowired
+	private OrientDocumentConverter orientDocumentConverter;
+
+	private ReactiveOrientDocumentTemplate reactive;
+
+	@Before
+	public void setUp() throws Exception {
+		db = new ODatabaseDocumentTx("memory:testDB");
+		if (db.exists()) {
+			db.open("admin", "admin");
+			db.drop();
+		}
+		db.create();
+
+		reactive = new ReactiveOrientDocumentTemplate(orientDbManager, orientDocumentConverter);
+		reactive.setMaxChunkSize(4);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if (db.exists())
+			db.drop();
+	}
+
+	@Test
+	public void testDeliversOnDemand() {
+		saveAnimals(25);
+
+		CollectingSubscriber<Animal> subscriber = new CollectingSubscriber<Animal>();
+		reactive.findAll(Animal.class).subscribe(subscriber);
+		assertTrue(subscriber.received.isEmpty());
+
+		subscriber.subscription.request(10);
+		assertEquals(10, subscriber.received.size());
+		assertFalse(subscriber.completed);
+
+		subscriber.subscription.request(10);
+		assertEquals(20, subscriber.received.size());
+
+		subscriber.subscription.request(10);
+		assertEquals(25, subscriber.received.size());
+		assertTrue(subscriber.completed);
+		assertNull(subscriber.error);
+	}
+
+	@Test
+	public void testCancelStopsDelivery() {
+		saveAnimals(10);
+
+		CollectingSubscriber<Animal> subscriber = new CollectingSubscriber<Animal>() {
+			@Override
+			public void onNext(Animal animal) {
+				super.onNext(animal);
+				if (received.size() == 3) {
+					subscription.cancel();
+				}
+			}
+		};
+		reactive.findAll(Animal.class).subscribe(subscriber);
+		subscriber.subscription.request(Long.MAX_VALUE);
+		assertEquals(3, subscriber.received.size());
+
+		subscriber.subscription.request(5);
+		assertEquals(3, subscriber.received.size());
+		assertFalse(subscriber.completed);
+	}
+
+	@Test
+	public void testKeepsBindingOfTheSubscriber() {
+		saveAnimals(10);
+
+		CollectingSubscriber<Animal> subscriber = new CollectingSubscriber<Animal>();
+		reactive.findAll(Animal.class).subscribe(subscriber);
+		ODatabaseRecordThreadLocal.INSTANCE.set(db);
+
+		subscriber.subscription.request(1);
+		assertEquals(1, subscriber.received.size());
+		assertSame(db, ODatabaseRecordThreadLocal.INSTANCE.getIfDefined());
+
+		subscriber.subscription.cancel();
+	}
+
+	@Test
+	public void testQueryIsReadInChunks() {
+		saveAnimals(10);
+
+		CollectingSubscriber<Animal> subscriber = new CollectingSubscriber<Animal>();
+		reactive.find("select from Animal where description = ?", Animal.class, null, "EVEN").subscribe(subscriber);
+		subscriber.subscription.request(Long.MAX_VALUE);
+
+		assertTrue(subscriber.completed);
+		assertEquals(5, subscriber.received.size());
+		for (int i = 0; i < 5; i++) {
+			assertEquals("ANIMAL-" + i * 2, subscriber.received.get(i).getName());
+		}
+	}
+
+	@Test
+	public void testQueryContinuesBehindLastDocument() {
+		saveAnimals(10);
+
+		CollectingSubscriber<Animal> subscriber = new CollectingSubscriber<Animal>();
+		reactive.find("select from Animal where description = ?", Animal.class, null, "EVEN").subscribe(subscriber);
+		subscriber.subscription.request(2);
+		assertEquals("ANIMAL-2", subscriber.received.get(1).getName());
+
+		// documents already delivered must not shift the rest
+		orientDocumentOperations.remove(subscriber.received.get(0));
+		subscriber.subscription.request(Long.MAX_VALUE);
+
+		assertTrue(subscriber.completed);
+		assertEquals(5, subscriber.received.size());
+		assertEquals("ANIMAL-4", subscriber.received.get(2).getName());
+	}
+
+	@Test
+	public void testKeywordsWithinStringsAreAccepted() {
+		saveAnimals(1);
+
+		CollectingSubscriber<Animal> subscriber = new CollectingSubscriber<Animal>();
+		reactive.find("select from Animal where description <> 'no limit, skip or order by'", Animal.class, null)
+				.subscribe(subscriber);
+		subscriber.subscription.request(Long.MAX_VALUE);
+
+		assertTrue(subscriber.completed);
+		assertEquals(1, subscriber.received.size());
+	}
+
+	@Test(expected = InvalidDataAccessApiUsageException.class)
+	public void testQueryWithLimitIsRejected() {
+		reactive.find("select from Animal limit 5", Animal.class, null);
+	}
+
+	@Test(expected = InvalidDataAccessApiUsageException.class)
+	public void testOrderedQueryIsRejected() {
+		reactive.find("select from Animal where description = ? order by name", Animal.class, null, "EVEN");
+	}
+
+	@Test
+	public void testMissingClassCompletesEmpty() {
+		CollectingSubscriber<Animal> subscriber = new CollectingSubscriber<Animal>();
+		reactive.findAll(Animal.class).subscribe(subscriber);
+		subscriber.subscription.request(1);
+
+		assertTrue(subscriber.completed);
+		assertTrue(subscriber.received.isEmpty());
+	}
+
+	@Test
+	public void testInvalidRequestSignalsError() {
+		saveAnimals(1);
+
+		CollectingSubscriber<Animal> subscriber = new CollectingSubscriber<Animal>();
+		reactive.findAll(Animal.class).subscribe(subscriber);
+		subscriber.subscription.request(0);
+
+		assertNotNull(subscriber.error);
+		assertTrue(subscriber.received.isEmpty());
+	}
+
+	private void saveAnimals(int count) {
+		for (int i = 0; i < count; i++) {
+			orientDocumentOperations.save(new Animal("ANIMAL-" + i, i % 2 == 0 ? "EVEN" : "ODD"));
+		}
+	}
+
+	private static class CollectingSubscriber<T> implements DocumentSubscriber<T> {
+
+		protected final List<T> received = new ArrayList<T>();
+		protected DocumentSubscription subscription;
+		protected boolean completed;
+		protected Throwable error;
+
+		public void onSubscribe(DocumentSubscription subscription) {
+			this.subscription = subscription;
+		}
+
+		public void onNext(T item) {
+			received.add(item);
+		}
+
+		public void onError(Throwable error) {
+			this.error = error;
+		}
+
+		public void onComplete() {
+			completed = true;
+		}
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.data.orientdb.document.core.mapping;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.springframework.data.util.ClassTypeInformation;
+
+/**
+ * 
+ * @author Matej Zachar
+ *
+ */
+public class BasicOrientDocumentPersistentEntityTest {
+
+	@Test
+	public void testLiteralCollection() {
+		BasicOrientDocumentPersistentEntity<Literal> entity = new BasicOrientDocumentPersistentEntity<Literal>(
+				ClassTypeInformation.from(Literal.class));
+		assertEquals("people", entity.getCollection());
+	}
+
+	@Test
+	public void testDefaultCollection() {
+		BasicOrientDocumentPersistentEntity<Unnamed> entity = new BasicOrientDocumentPersistentEntity<Unnamed>(
+				ClassTypeInformation.from(Unnamed.class));
+		assertEquals(OrientDocumentMappingUtils.getPreferredCollectionName(Unnamed.class), entity.getCollection());
+	}
+
+	@Test
+	public void testExpressionEvaluatedOnEveryCall() {
+		BasicOrientDocumentPersistentEntity<Dynamic> entity = new BasicOrientDocumentPersistentEntity<Dynamic>(
+				ClassTypeInformation.from(Dynamic.class));
+
+		Dynamic.tenant = "a";
+		assertEquals("people_a", entity.getCollection());
+		Dynamic.tenant = "b";
+		assertEquals("people_b", entity.getCollection());
+	}
+
+	@Document(collection = "people")
+	static class Literal {
+	}
+
+	@Document
+	static class Unnamed {
+	}
+
+	@Document(collection = "people_#{T(org.springframework.data.orientdb.document.core.mapping.BasicOrientDocumentPersistentEntityTest$Dynamic).getTenant()}")
+	public static class Dynamic {
+		static String tenant;
+
+		public static String getTenant() {
+			return tenant;
+		}
+	}
+
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.orientdb.document.repository;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.orientdb.document.core.Animal;
+import org.springframework.data.orientdb.document.core.Country;
+import org.springframework.data.orientdb.document.core.Farm;
+import org.springframework.data.orientdb.document.core.OrientDocumentDbManager;
+import org.springframework.data.orientdb.document.core.OrientDocumentOperations;
+import org.springframework.data.orientdb.document.core.mapping.FetchPlan;
+import org.springframework.data.orientdb.document.repository.support.OrientDocumentRepositoryFactory;
+import org.springframework.data.repository.query.QueryCreationException;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+
+/**
+ * 
+ * @author Matej Zachar
+ *
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration("../core/OrientDocumentTemplateTest-context.xml")
+public class OrientDocumentRepositoryTest {
+
+	private ODatabaseDocumentTx db;
+
+	@Autowired
+	private OrientDocumentOperations orientDocumentOperations;
+
+	@Autowired
+	private OrientDocumentDbManager orientDbManager;
+
+	private AnimalRepository animalRepository;
+
+	private FarmRepository farmRepository;
+
+	@Before
+	public void setUp() throws Exception {
+		db = new ODatabaseDocumentTx("memory:testDB");
+		if (db.exists()) {
+			db.open("admin", "admin");
+			db.drop();
+		}
+		db.create();
+
+		OrientDocumentRepositoryFactory factory = new OrientDocumentRepositoryFactory(orientDocumentOperations);
+		animalRepository = factory.getRepository(AnimalRepository.class);
+		farmRepository = factory.getRepository(FarmRepository.class);
+
+		animalRepository.save(Arrays.asList(new Animal("PIG", "Egg stealer"), new Animal("COW", "Milk giver"),
+				new Animal("CAT", "Mouse catcher")));
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		orientDbManager.releaseCurrentDatabase();
+		if (db.exists())
+			db.drop();
+	}
+
+	@Test
+	public void testCrudMethods() {
+		assertEquals(3, animalRepository.count());
+		Animal pig = animalRepository.findByName("PIG");
+		assertEquals(pig.getName(), animalRepository.findOne(pig.getId()).getName());
+
+		animalRepository.delete(pig.getId());
+		assertFalse(animalRepository.exists(pig.getId()));
+		assertEquals(2, animalRepository.findAll().size());
+	}
+
+	@Test
+	public void testDerivedQueries() {
+		assertEquals("PIG", animalRepository.findByName("PIG").getName());
+		assertNull(animalRepository.findByName("HORSE"));
+		assertEquals(2, animalRepository.findByNameIn(Arrays.asList("PIG", "CAT", "HORSE")).size());
+		assertEquals("COW", animalRepository.findByDescriptionContainingIgnoreCase("MILK").get(0).getName());
+
+		List<Animal> animals = animalRepository.findByNameStartingWithOrDescriptionOrderByNameDesc("C", "Egg stealer");
+		assertEquals(3, animals.size());
+		assertEquals("PIG", animals.get(0).getName());
+		assertEquals("CAT", animals.get(2).getName());
+	}
+
+	@Test
+	public void testNegatedAndRangeDerivedQueries() {
+		assertEquals("PIG", animalRepository.findByNameNotLike("C%").get(0).getName());
+		assertEquals(1, animalRepository.findByNameNotLike("C%").size());
+		assertEquals(2, animalRepository.findByNameNotIn(Arrays.asList("PIG", "HORSE")).size());
+
+		List<Animal> animals = animalRepository.findByNameBetweenOrderByNameAsc("CAT", "COW");
+		assertEquals(2, animals.size());
+		assertEquals("CAT", animals.get(0).getName());
+		assertEquals("COW", animals.get(1).getName());
+	}
+
+	@Test
+	public void testDerivedQueryFollowsLinks() {
+		Country country = new Country("CZ");
+		orientDocumentOperations.save(country);
+		Farm farm = new Farm("OLD MCDONALD", country);
+		farm.getAnimals().add(animalRepository.findByName("PIG"));
+		farmRepository.save(farm);
+		farmRepository.save(new Farm("ANIMAL FARM", null));
+
+		List<Farm> farms = farmRepository.findByCountryCode("CZ");
+		assertEquals(1, farms.size());
+		assertEquals("PIG", farms.get(0).getAnimals().get(0).getName());
+		assertTrue(farmRepository.findByCountryCode("SK").isEmpty());
+	}
+
+	@Test(expected = QueryCreationException.class)
+	public void testUnknownPropertyFailsOnCreation() {
+		new OrientDocumentRepositoryFactory(orientDocumentOperations).getRepository(BrokenRepository.class);
+	}
+
+	@Test(expected = QueryCreationException.class)
+	public void testDistinctFailsOnCreation() {
+		new OrientDocumentRepositoryFactory(orientDocumentOperations).getRepository(DistinctRepository.class);
+	}
+
+	interface AnimalRepository extends OrientDocumentRepository<Animal, String> {
+
+		Animal findByName(String name);
+
+		List<Animal> findByNameIn(Collection<String> names);
+
+		List<Animal> findByDescriptionContainingIgnoreCase(String text);
+
+		List<Animal> findByNameStartingWithOrDescriptionOrderByNameDesc(String prefix, String description);
+
+		List<Animal> findByNameNotLike(String pattern);
+
+		List<Animal> findByNameNotIn(Collection<String> names);
+
+		List<Animal> findByNameBetweenOrderByNameAsc(String from, String to);
+	}
+
+	interface FarmRepository extends OrientDocumentRepository<Farm, String> {
+
+		@FetchPlan("animals:1")
+		List<Farm> findByCountryCode(String code);
+	}
+
+	interface BrokenRepository extends OrientDocumentRepository<Animal, String> {
+
+		List<Animal> findByWeight(int weight);
+	}
+
+	interface DistinctRepository extends OrientDocumentRepository<Animal, String> {
+
+		List<Animal> findDistinctByName(String name);
+	}
+
+}